@@ -26,6 +26,20 @@ public class AppointmentDTO {
         this.endTime = this.appointmentTime.plusHours(1);
     }
 
+    public AppointmentDTO(Long id, Long doctorId, String doctorName, Long patientId, String patientName, String patientEmail,
+            String patientPhone, String patientAddress, LocalDateTime appointmentTime, int status) {
+        this(appointmentTime);
+        this.id = id;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.patientEmail = patientEmail;
+        this.patientPhone = patientPhone;
+        this.patientAddress = patientAddress;
+        this.status = status;
+    }
+
     // Getters
     public Long getId() {
         return this.id;
@@ -0,0 +1,12 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+public record AppointmentSeries(
+    Long doctorId,
+    LocalDateTime firstAppointmentTime,
+    int intervalDays,
+    int occurrences,
+    String reasonForVisit
+) {
+}
@@ -0,0 +1,13 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+public record DailyReportRow(
+    Long doctorId,
+    String doctorName,
+    LocalDateTime appointmentTime,
+    int status,
+    String patientName,
+    String patientPhone
+) {
+}
@@ -0,0 +1,48 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+
+public record DoctorSummary(
+    Long id,
+    String name,
+    String specialty,
+    String email,
+    String phone,
+    List<ScheduleWindow> schedule,
+    int slotMinutes,
+    int yearsOfExperience,
+    String clinicAddress
+) {
+    /**
+     * Creates the summary of a doctor whose schedule has been fetched
+     * @param doctor Doctor with its schedule
+     * @return Summary of the doctor
+     */
+    public static DoctorSummary of(final Doctor doctor) {
+        return of(doctor, doctor.getSchedule());
+    }
+
+    /**
+     * Creates the summary of a doctor from a separately fetched schedule.
+     * The windows are copied, so the summary does not change when the entity's schedule is edited.
+     * @param doctor Doctor
+     * @param schedule Schedule of the doctor
+     * @return Summary of the doctor
+     */
+    public static DoctorSummary of(final Doctor doctor, final List<ScheduleWindow> schedule) {
+        return new DoctorSummary(
+            doctor.getId(),
+            doctor.getName(),
+            doctor.getSpecialty(),
+            doctor.getEmail(),
+            doctor.getPhone(),
+            schedule == null ? List.of() : schedule.stream().map(ScheduleWindow::copy).toList(),
+            doctor.getSlotMinutes(),
+            doctor.getYearsOfExperience(),
+            doctor.getClinicAddress()
+        );
+    }
+}
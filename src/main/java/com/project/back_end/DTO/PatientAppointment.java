@@ -0,0 +1,16 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+public record PatientAppointment(
+    Long id,
+    Long doctorId,
+    String doctorName,
+    String doctorSpecialty,
+    Long patientId,
+    LocalDateTime appointmentTime,
+    int status,
+    String reasonForVisit,
+    String pharmacyName
+) {
+}
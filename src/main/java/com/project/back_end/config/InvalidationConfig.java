@@ -0,0 +1,41 @@
+package com.project.back_end.config;
+
+import java.net.SocketException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.project.back_end.invalidation.InProcessInvalidationBus;
+import com.project.back_end.invalidation.InvalidationBus;
+import com.project.back_end.invalidation.LoopbackSocketInvalidationBus;
+
+@Configuration
+public class InvalidationConfig {
+    /**
+     * Bus for a single node, used unless invalidation.bus is set to socket
+     * @return In-process invalidation bus
+     */
+    @Bean
+    @ConditionalOnProperty(name = "invalidation.bus", havingValue = "in-process", matchIfMissing = true)
+    public InvalidationBus inProcessInvalidationBus() {
+        return new InProcessInvalidationBus(new InProcessInvalidationBus.Hub());
+    }
+
+    /**
+     * Bus for several nodes on one machine
+     * @param port Port this node listens on
+     * @param peers Ports of every node; this node's own port is skipped
+     * @return Loopback socket invalidation bus
+     * @throws SocketException If the port cannot be bound
+     */
+    @Bean
+    @ConditionalOnProperty(name = "invalidation.bus", havingValue = "socket")
+    public InvalidationBus loopbackSocketInvalidationBus(
+        @Value("${invalidation.socket.port}") final int port,
+        @Value("${invalidation.socket.peers}") final List<Integer> peers) throws SocketException {
+        return new LoopbackSocketInvalidationBus(port, peers);
+    }
+}
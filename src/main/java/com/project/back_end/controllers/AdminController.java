@@ -1,15 +1,30 @@
 package com.project.back_end.controllers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.project.back_end.models.Admin;
+import com.project.back_end.invalidation.InvalidationBus;
 import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.DoctorDirectory;
+import com.project.back_end.services.MonthlyPatientCounts;
+import com.project.back_end.services.ReportService;
+import com.project.back_end.services.TokenService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -18,6 +33,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AdminController {
     private final ClinicService service;
+    private final TokenService tokenService;
+    private final DoctorDirectory doctorDirectory;
+    private final InvalidationBus invalidationBus;
+    private final ReportService reportService;
+    private final MonthlyPatientCounts monthlyCounts;
 
     /**
      * Admin login
@@ -28,4 +48,130 @@ public class AdminController {
     public ResponseEntity<Map<String, String>> adminLogin(@RequestBody final Admin admin) {
         return service.validateAdmin(admin);
     }
+
+    /**
+     * Admin logout
+     * @param token Token to be revoked
+     * @return Success message or an error message if the token is already invalid
+     */
+    @PostMapping("/logout/{token}")
+    public ResponseEntity<Map<String, String>> adminLogout(@PathVariable final String token) {
+        return service.revokeToken(token);
+    }
+
+    /**
+     * Forcibly revokes another user's token
+     * @param token Authentication token for the admin
+     * @param request Body with the "token" to be revoked
+     * @return Success message or an error message if either token is invalid
+     */
+    @PostMapping("/revoke/{token}")
+    public ResponseEntity<Map<String, String>> revokeToken(@PathVariable final String token, @RequestBody final Map<String, String> request) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        String tokenToRevoke = request.get("token");
+        if (tokenToRevoke == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No token specified."));
+        }
+        return service.revokeToken(tokenToRevoke);
+    }
+
+    /**
+     * Streams the appointments of a day grouped by doctor
+     * @param date Day of the report (yyyy-MM-dd)
+     * @param token Authentication token for the admin
+     * @param format "csv" for one row per appointment, or "ndjson" for one line per doctor
+     * @return Response that writes the report as it is read, or an error message if the token, date, or format is invalid
+     */
+    @GetMapping("/reports/daily/{date}/{token}")
+    public ResponseEntity<?> getDailyReport(@PathVariable final String date, @PathVariable final String token, @RequestParam(defaultValue = "csv") final String format) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        final LocalDate reportDate;
+        try {
+            reportDate = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid date"));
+        }
+
+        if (format.equalsIgnoreCase("csv")) {
+            StreamingResponseBody body = out -> reportService.writeDailyReportCsv(reportDate, out);
+            return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments-" + reportDate + ".csv\"")
+                .body(body);
+        }
+        if (format.equalsIgnoreCase("ndjson")) {
+            StreamingResponseBody body = out -> reportService.writeDailyReportNdjson(reportDate, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
+        return ResponseEntity.badRequest().body(Map.of("error", "Unsupported format"));
+    }
+
+    /**
+     * Get the doctors with the most appointments in a month
+     * @param token Authentication token for the admin
+     * @param month Month (yyyy-MM), the current month by default
+     * @param limit Number of doctors to return
+     * @return The top doctors or an error message if the token or month is invalid
+     */
+    @GetMapping("/reports/top-doctors/{token}")
+    public ResponseEntity<Map<String, Object>> getTopDoctors(@PathVariable final String token, @RequestParam(required = false) final String month, @RequestParam(defaultValue = "10") final int limit) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        final YearMonth reportMonth;
+        try {
+            reportMonth = month == null ? YearMonth.now() : YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid month"));
+        }
+        return ResponseEntity.ok(Map.of("month", reportMonth.toString(), "doctors", monthlyCounts.topDoctors(reportMonth, Math.max(1, Math.min(limit, 100)))));
+    }
+
+    /**
+     * Recounts the monthly appointment counts of a month from the appointments and corrects any drift
+     * @param month Month (yyyy-MM)
+     * @param token Authentication token for the admin
+     * @return The corrected counts or an error message if the token or month is invalid
+     */
+    @PostMapping("/reports/reconcile/{month}/{token}")
+    public ResponseEntity<Map<String, Object>> reconcileMonthlyCounts(@PathVariable final String month, @PathVariable final String token) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        final YearMonth reportMonth;
+        try {
+            reportMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid month"));
+        }
+        return ResponseEntity.ok(Map.of("month", reportMonth.toString(), "drift", monthlyCounts.reconcile(reportMonth)));
+    }
+
+    /**
+     * Get runtime statistics of the in-memory caches
+     * @param token Authentication token for the admin
+     * @return Cache statistics or an error message if the token is invalid
+     */
+    @GetMapping("/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getStats(@PathVariable final String token) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        return ResponseEntity.ok(Map.of(
+            "tokenCache", tokenService.getCacheStats(),
+            "tokenRevocation", tokenService.getRevocationStats(),
+            "doctorDirectory", doctorDirectory.getStats(),
+            "invalidationBus", invalidationBus.getStats(),
+            "monthlyCounts", monthlyCounts.getStats()
+        ));
+    }
 }
@@ -14,7 +14,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.project.back_end.DTO.AppointmentSeries;
 import com.project.back_end.models.Appointment;
+import com.project.back_end.security.AuthPrincipal;
+import com.project.back_end.security.CurrentPrincipal;
 import com.project.back_end.services.AppointmentService;
 import com.project.back_end.services.ClinicService;
 
@@ -31,36 +34,39 @@ public class AppointmentController {
      * Get appointments
      * @param date Appointment date
      * @param patientName Patient name
-     * @param token Token to validate
+     * @param principal Doctor resolved from the {token} path variable
      * @return Response with appointments based on the criteria or an error message is token validation failed
      */
     @GetMapping("/{date}/{patientName}/{token}")
     public ResponseEntity<Map<String, Object>> getAppointments(
         @PathVariable final String date,
         @PathVariable final String patientName,
-        @PathVariable final String token) {
-        if (!service.validateToken(token, "doctor")) {
+        @CurrentPrincipal("doctor") final AuthPrincipal principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
         LocalDateTime appointmentDate = LocalDateTime.parse(date, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        Map<String, Object> result = appointmentService.getAppointment(patientName, appointmentDate, token);
+        Map<String, Object> result = appointmentService.getAppointment(patientName, appointmentDate, principal);
         return ResponseEntity.ok(result);
     }
 
     /**
      * Book an appointment
-     * @param token Token to validate
+     * @param principal Patient resolved from the {token} path variable
      * @param appointment Appointment to be booked
      * @return Response with success message or an error message if token validation failed or appointment booking failed
      */
     @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> bookAppointment(@PathVariable final String token, @RequestBody final Appointment appointment) {
-        if (!service.validateToken(token, "patient")) {
+    public ResponseEntity<Map<String, String>> bookAppointment(@CurrentPrincipal("patient") final AuthPrincipal principal, @RequestBody final Appointment appointment) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
+        if (appointment.getId() != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "A new appointment cannot have an ID"));
+        }
         
-        int validationResult = service.validateAppointment(appointment);
+        int validationResult = service.validateAppointment(appointment, principal.getId());
         if (validationResult == -1) {
             return ResponseEntity.badRequest().body(Map.of("error", "Doctor not found"));
         }
@@ -68,41 +74,90 @@ public class AppointmentController {
             return ResponseEntity.badRequest().body(Map.of("error", "Appointment time not available"));
         }
         
-        int bookingResult = appointmentService.bookAppointment(appointment);
+        int bookingResult = appointmentService.bookAppointment(appointment, principal.getId());
         if (bookingResult == 1) {
             return ResponseEntity.status(201).body(Map.of("message", "Appointment booked successfully"));
+        } else if (bookingResult == -1) {
+            return ResponseEntity.status(409).body(Map.of("error", "Appointment slot already taken"));
         } else {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to book appointment"));
         }
     }
 
+    /**
+     * Book a recurring series of appointments, such as every Tuesday at 10:00 for 12 weeks. Either every occurrence is booked or none.
+     * @param principal Patient resolved from the {token} path variable
+     * @param series Doctor, first appointment time, interval in days, and number of occurrences
+     * @return Response with the booked occurrences, or the conflicting occurrences if the series could not be booked
+     */
+    @PostMapping("/series/{token}")
+    public ResponseEntity<Map<String, Object>> bookSeries(@CurrentPrincipal("patient") final AuthPrincipal principal, @RequestBody final AppointmentSeries series) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        return appointmentService.bookSeries(series, principal);
+    }
+
+    /**
+     * Hold a slot for a few minutes while the patient completes the booking
+     * @param doctorId Doctor ID
+     * @param time Appointment start time
+     * @param principal Patient resolved from the {token} path variable
+     * @return Response with the expiry of the hold or an error message if token validation failed or the slot is not available
+     */
+    @PostMapping("/hold/{doctorId}/{time}/{token}")
+    public ResponseEntity<Map<String, String>> holdSlot(@PathVariable final Long doctorId, @PathVariable final String time, @CurrentPrincipal("patient") final AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        return appointmentService.holdSlot(doctorId, LocalDateTime.parse(time, DateTimeFormatter.ISO_LOCAL_DATE_TIME), principal);
+    }
+
+    /**
+     * Release a held slot
+     * @param doctorId Doctor ID
+     * @param time Appointment start time
+     * @param principal Patient resolved from the {token} path variable
+     * @return Response with success message or an error message if token validation failed or no hold was found
+     */
+    @DeleteMapping("/hold/{doctorId}/{time}/{token}")
+    public ResponseEntity<Map<String, String>> releaseSlot(@PathVariable final Long doctorId, @PathVariable final String time, @CurrentPrincipal("patient") final AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        return appointmentService.releaseSlot(doctorId, LocalDateTime.parse(time, DateTimeFormatter.ISO_LOCAL_DATE_TIME), principal);
+    }
+
     /**
      * Update appointment
-     * @param token Token to validate
+     * @param principal Patient resolved from the {token} path variable
      * @param appointment Appointment to be updated
      * @return Response with success message or an error message if token validation failed or appointment update failed
      */
     @PutMapping("/{token}")
-    public ResponseEntity<Map<String, String>> updateAppointment(@PathVariable final String token, @RequestBody final Appointment appointment) {
-        if (!service.validateToken(token, "patient")) {
+    public ResponseEntity<Map<String, String>> updateAppointment(@CurrentPrincipal("patient") final AuthPrincipal principal, @RequestBody final Appointment appointment) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
-        return appointmentService.updateAppointment(appointment);
+        return appointmentService.updateAppointment(appointment, principal);
     }
 
     /**
      * Cancel appointment
      * @param id Appointment ID
-     * @param token Token to validate
+     * @param principal Patient resolved from the {token} path variable
      * @return Response with success message or an error message if token validation failed or appointment cancellation failed
      */
     @DeleteMapping("/{id}/{token}")
-    public ResponseEntity<Map<String, String>> cancelAppointment(@PathVariable final String id, @PathVariable final String token) {
-        if (!service.validateToken(token, "patient")) {
+    public ResponseEntity<Map<String, String>> cancelAppointment(@PathVariable final String id, @CurrentPrincipal("patient") final AuthPrincipal principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
-        return appointmentService.cancelAppointment(Long.parseLong(id), token);
+        return appointmentService.cancelAppointment(Long.parseLong(id), principal);
     }
 }
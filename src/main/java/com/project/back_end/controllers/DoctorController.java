@@ -1,9 +1,13 @@
 package com.project.back_end.controllers;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,10 +16,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.security.AuthPrincipal;
+import com.project.back_end.security.CurrentPrincipal;
+import com.project.back_end.services.DirectoryVersion;
 import com.project.back_end.services.DoctorService;
 import com.project.back_end.services.ClinicService;
 
@@ -27,33 +37,117 @@ import lombok.RequiredArgsConstructor;
 public class DoctorController {
     private final DoctorService doctorService;
     private final ClinicService service;
+    private final DirectoryVersion directoryVersion;
+
+    @Value("${slots.max-range-days:62}")
+    private int maxAvailabilityDays;
+
+    @Value("${slots.max-batch-doctors:100}")
+    private int maxBatchDoctors;
+
+    @Value("${doctors.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${doctors.max-page-size:200}")
+    private int maxPageSize;
 
     /**
      * Gets the doctor's availability
      * @param user Role of the user (doctor, patient, admin, and so on)
      * @param doctorId Unique ID of the doctor
      * @param date Date for which the availability needs to be fetched
-     * @param token Authentication token for validating the user
+     * @param principal User resolved from the {token} path variable for the {user} role
      * @return A map with the doctor's availability of an error message
      */
     @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
-    public ResponseEntity<Map<String, Object>> getDoctorAvailability(@PathVariable final String user, @PathVariable final Long doctorId, @PathVariable final LocalDate date, @PathVariable final String token) {
-        if (!service.validateToken(token, user)) {
+    public ResponseEntity<Map<String, Object>> getDoctorAvailability(@PathVariable final Long doctorId, @PathVariable final LocalDate date, @CurrentPrincipal final AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+        
+        List<String> availability = doctorService.getDoctorAvailability(doctorId, date, principal.getPatientId());
+        return ResponseEntity.ok(Map.of("availability", availability));
+    }
+
+    /**
+     * Gets the doctor's availability for every day of a date range
+     * @param doctorId Unique ID of the doctor
+     * @param from First date of the range
+     * @param to Last date of the range (inclusive)
+     * @param principal User resolved from the {token} path variable for the {user} role
+     * @return A map with the doctor's availability grouped by date or an error message
+     */
+    @GetMapping("/availability/{user}/{doctorId}/{from}/{to}/{token}")
+    public ResponseEntity<Map<String, Object>> getDoctorAvailabilityRange(@PathVariable final Long doctorId, @PathVariable final LocalDate from, @PathVariable final LocalDate to, @CurrentPrincipal final AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= maxAvailabilityDays) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Date range must span 1 to " + maxAvailabilityDays + " days"));
+        }
+        
+        Map<LocalDate, List<String>> availability = doctorService.getDoctorAvailability(doctorId, from, to, principal.getPatientId());
+        return ResponseEntity.ok(Map.of("availability", availability));
+    }
+
+    /**
+     * Gets the availability of many doctors on one date, e.g. for a page of search results
+     * @param date Date for which the availability needs to be fetched
+     * @param doctorIds IDs of the doctors
+     * @param principal User resolved from the {token} path variable for the {user} role
+     * @return A map of doctor ID to available slots or an error message
+     */
+    @GetMapping("/availability/batch/{user}/{date}/{token}")
+    public ResponseEntity<Map<String, Object>> getDoctorsAvailability(@PathVariable final LocalDate date, @RequestParam final List<Long> doctorIds, @CurrentPrincipal final AuthPrincipal principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
+        if (doctorIds.size() > maxBatchDoctors) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + maxBatchDoctors + " doctors can be requested at once"));
+        }
         
-        List<String> availability = doctorService.getDoctorAvailability(doctorId, date);
+        Map<Long, List<String>> availability = doctorService.getDoctorsAvailability(doctorIds, date, principal.getPatientId());
         return ResponseEntity.ok(Map.of("availability", availability));
     }
 
     /**
-     * Gets a list of doctors
-     * @return A list of all doctors
+     * Gets every doctor, or a page of doctors when a cursor or a limit is given
+     * @param sort Sort order of pages: id (default) or name
+     * @param cursor Cursor of the page, taken from the nextCursor of the previous page; omitted for the first page
+     * @param limit Maximum number of doctors in the page
+     * @param request Request whose If-None-Match header is checked against the directory version
+     * @return All doctors, or a page of doctors with the cursor of the next page, 304 if the client's copy is current, or an error message
      */
     @GetMapping()
-    public ResponseEntity<Map<String, Object>> getDoctors() {
-        List<Doctor> doctors = doctorService.getDoctors();
-        return ResponseEntity.ok(Map.of("doctors", doctors));
+    public ResponseEntity<Map<String, Object>> getDoctors(
+        @RequestParam(defaultValue = "id") final String sort,
+        @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final Integer limit,
+        final WebRequest request) {
+        final boolean paged = cursor != null || limit != null;
+        final int pageSize = limit != null ? limit : defaultPageSize;
+        if (paged && (pageSize < 1 || pageSize > maxPageSize)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Limit must be between 1 and " + maxPageSize));
+        }
+
+        final String eTag = directoryVersion.eTag(); // Taken before reading, so a concurrent write can only make the ETag older than the body
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null; // 304 already written
+        }
+        if (!paged) {
+            return withETag(ResponseEntity.ok(Map.of("doctors", doctorService.getDoctors())), eTag);
+        }
+        return withETag(doctorService.getDoctorPage(sort, cursor, pageSize), eTag);
+    }
+
+    /**
+     * Streams every doctor as newline-delimited JSON, for clients that send Accept: application/x-ndjson
+     * @return Response that writes the doctors as they are read from the database
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDoctors() {
+        StreamingResponseBody body = doctorService::streamDoctors;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
@@ -88,6 +182,16 @@ public class DoctorController {
         return doctorService.validateDoctor(login);
     }
 
+    /**
+     * Logout doctor
+     * @param token Token to be revoked
+     * @return Success message or an error message if the token is already invalid
+     */
+    @PostMapping("/logout/{token}")
+    public ResponseEntity<Map<String, String>> logoutDoctor(@PathVariable final String token) {
+        return service.revokeToken(token);
+    }
+
     /**
      * Updates a doctor's details
      * @param doctor Doctor object with updated details
@@ -137,11 +241,29 @@ public class DoctorController {
      * @param name Name of the doctor (can be partial)
      * @param time Available time for filtering
      * @param specialty Specialty of the doctor
-     * @return A map of filtered doctor data
+     * @param request Request whose If-None-Match header is checked against the directory version
+     * @return A map of filtered doctor data, or 304 if the client's copy is current
      */
     @GetMapping("/filter/{name}/{time}/{specialty}")
-    public ResponseEntity<Map<String, Object>> filterDoctors(@PathVariable final String name, @PathVariable final String time, @PathVariable final String specialty) {
+    public ResponseEntity<Map<String, Object>> filterDoctors(@PathVariable final String name, @PathVariable final String time, @PathVariable final String specialty, final WebRequest request) {
+        final String eTag = directoryVersion.eTag();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null; // 304 already written
+        }
         Map<String, Object> result = service.filterDoctor(name, specialty, time);
-        return ResponseEntity.ok(result);
+        return withETag(ResponseEntity.ok(result), eTag);
+    }
+
+    /**
+     * Adds the directory ETag to a successful response and asks clients to revalidate before reusing it
+     * @param response Response of a doctor listing
+     * @param eTag ETag of the directory snapshot the response was read at, or null if the directory is not loaded yet
+     * @return Response with the ETag, or the original response if it is an error or has no ETag
+     */
+    private static ResponseEntity<Map<String, Object>> withETag(final ResponseEntity<Map<String, Object>> response, final String eTag) {
+        if (eTag == null || !response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode()).eTag(eTag).cacheControl(CacheControl.noCache()).body(response.getBody());
     }
 }
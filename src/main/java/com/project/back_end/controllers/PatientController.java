@@ -2,6 +2,8 @@ package com.project.back_end.controllers;
 
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,9 +11,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Patient;
+import com.project.back_end.security.AuthPrincipal;
+import com.project.back_end.security.CurrentPrincipal;
 import com.project.back_end.services.ClinicService;
 import com.project.back_end.services.PatientService;
 
@@ -26,13 +31,13 @@ public class PatientController {
 
     /**
      * Get patient details
-     * @param token Authentication token for the patient
+     * @param principal Patient resolved from the {token} path variable
      * @return Patient details if successful and an error message with appropriate HTTP status
      */
     @GetMapping("/{token}")
-    public ResponseEntity<Map<String, Object>> getPatientDetails(@PathVariable final String token) {
-        if (service.validateToken(token, "patient")) {
-            return patientService.getPatientDetails(token);
+    public ResponseEntity<Map<String, Object>> getPatientDetails(@CurrentPrincipal("patient") final AuthPrincipal principal) {
+        if (principal != null) {
+            return patientService.getPatientDetails(principal);
         } else {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
@@ -57,6 +62,16 @@ public class PatientController {
         }
     }
 
+    /**
+     * Logout patient
+     * @param token Token to be revoked
+     * @return Success message or an error message if the token is already invalid
+     */
+    @PostMapping("/logout/{token}")
+    public ResponseEntity<Map<String, String>> logoutPatient(@PathVariable final String token) {
+        return service.revokeToken(token);
+    }
+
     /**
      * Login patient
      * @param login Login credentials (email, password)
@@ -70,31 +85,50 @@ public class PatientController {
     /**
      * Get patient appointments
      * @param id ID of the patient
-     * @param token Authentication token for the patient
+     * @param principal Patient resolved from the {token} path variable
      * @return The list of patient appointments or an error message
      */
     @GetMapping("/{id}/{token}")
-    public ResponseEntity<Map<String, Object>> getPatientAppointments(@PathVariable final Long id, @PathVariable final String token) {
-        if (!service.validateToken(token, "patient")) {
+    public ResponseEntity<Map<String, Object>> getPatientAppointments(@PathVariable final Long id, @CurrentPrincipal("patient") final AuthPrincipal principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
-        return patientService.getPatientAppointment(id, token);
+        return patientService.getPatientAppointment(id, principal);
+    }
+
+    /**
+     * Export the patient's whole appointment history as newline-delimited JSON
+     * @param principal Patient resolved from the {token} path variable
+     * @return Response that writes the appointments as they are read, or an error message if the token is invalid
+     */
+    @GetMapping(value = "/export/{token}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> exportAppointments(@CurrentPrincipal("patient") final AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+
+        final Long patientId = principal.getId();
+        StreamingResponseBody body = out -> patientService.exportAppointments(patientId, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments.ndjson\"")
+            .body(body);
     }
 
     /**
      * Filters patient appointments
      * @param condition Condition to filter appointments (e.g. "upcoming", "past")
      * @param name Name of description for filtering (e.g. doctor name, appointment type)
-     * @param token Authentication token for the patient
+     * @param principal Patient resolved from the {token} path variable
      * @return Filtered appointments or an error message
      */
     @GetMapping("/filter/{condition}/{name}/{token}")
-    public ResponseEntity<Map<String, Object>> filterPatientAppointments(@PathVariable final String condition, @PathVariable final String name, @PathVariable final String token) {
-        if (!service.validateToken(token, "patient")) {
+    public ResponseEntity<Map<String, Object>> filterPatientAppointments(@PathVariable final String condition, @PathVariable final String name, @CurrentPrincipal("patient") final AuthPrincipal principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
-        return service.filterPatient(condition, name, token);
+        return service.filterPatient(condition, name, principal);
     }
 }
@@ -11,7 +11,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.project.back_end.models.Prescription;
-import com.project.back_end.services.ClinicService;
+import com.project.back_end.security.AuthPrincipal;
+import com.project.back_end.security.CurrentPrincipal;
 import com.project.back_end.services.PrescriptionService;
 
 import lombok.RequiredArgsConstructor;
@@ -21,17 +22,16 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class PrescriptionController {
     private final PrescriptionService prescriptionService;
-    private final ClinicService service;
 
     /**
      * Saves a prescription
-     * @param token Authentication token for the doctor
+     * @param principal Doctor resolved from the {token} path variable
      * @param prescription Prescription details to be saved
      * @return Success message if prescription is successfully saved or error message with appropriate HTTP status if the token is invalid
      */
     @PutMapping("/{token}")
-    public ResponseEntity<Map<String, String>> savePrescription(@PathVariable final String token, @RequestBody final Prescription prescription) {
-        if (!service.validateToken(token, "doctor")) {
+    public ResponseEntity<Map<String, String>> savePrescription(@CurrentPrincipal("doctor") final AuthPrincipal principal, @RequestBody final Prescription prescription) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
@@ -41,12 +41,12 @@ public class PrescriptionController {
     /**
      * Get prescription by appointment ID
      * @param appointmentId ID of the appointment to retrieve the prescription for
-     * @param token Authentication token for the doctor
+     * @param principal Doctor resolved from the {token} path variable
      * @return Prescription details if found, message indicating no prescription found or if an error occurred
      */
     @GetMapping("/{appointmentId}/{token}")
-    public ResponseEntity<Map<String, Object>> getPrescriptionByAppointmentId(@PathVariable final Long appointmentId, @PathVariable final String token) {
-        if (!service.validateToken(token, "doctor")) {
+    public ResponseEntity<Map<String, Object>> getPrescriptionByAppointmentId(@PathVariable final Long appointmentId, @CurrentPrincipal("doctor") final AuthPrincipal principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
@@ -0,0 +1,33 @@
+package com.project.back_end.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InProcessInvalidationBus extends InvalidationBus {
+    private final Hub hub;
+
+    /**
+     * Constructor for InProcessInvalidationBus
+     * @param hub Hub shared by the nodes
+     */
+    public InProcessInvalidationBus(final Hub hub) {
+        this.hub = hub;
+        hub.nodes.add(this);
+    }
+
+    @Override
+    protected void send(final InvalidationEvent event) {
+        for (InProcessInvalidationBus node : hub.nodes) {
+            if (node != this) {
+                node.receive(event);
+            }
+        }
+    }
+
+    /**
+     * Set of in-process nodes that see each other's events
+     */
+    public static final class Hub {
+        private final List<InProcessInvalidationBus> nodes = new CopyOnWriteArrayList<>();
+    }
+}
@@ -0,0 +1,181 @@
+package com.project.back_end.invalidation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public abstract class InvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>(); // per entity
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final Executor dispatcher;
+
+    private final Map<String, Long> lastSequences = new HashMap<>(); // per origin and entity, guarded by this
+    private final Map<Change, Boolean> pendingChanges = new LinkedHashMap<>(); // guarded by this
+    private final Set<String> pendingRefreshes = new HashSet<>(); // guarded by this
+    private boolean dispatching; // guarded by this
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong gaps = new AtomicLong();
+
+    /**
+     * Constructor for a bus that notifies listeners on the thread that receives the event
+     */
+    protected InvalidationBus() {
+        this(Runnable::run);
+    }
+
+    /**
+     * Constructor for InvalidationBus
+     * @param dispatcher Executor that notifies the listeners, so receiving is never held up by a cache reload.
+     * It must run one task at a time.
+     */
+    protected InvalidationBus(final Executor dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Registers a local cache
+     * @param listener Cache to notify of changes on other nodes
+     */
+    public void subscribe(final InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Tells the other nodes that an entity changed. Call only after the change has committed.
+     * @param entity Entity type (doctor, patient)
+     * @param id ID of the entity
+     * @param deleted True if the entity was deleted
+     */
+    public void publish(final String entity, final Long id, final boolean deleted) {
+        published.incrementAndGet();
+        final long sequence = sequences.computeIfAbsent(entity, key -> new AtomicLong()).incrementAndGet();
+        send(new InvalidationEvent(nodeId, sequence, entity, id, deleted));
+    }
+
+    /**
+     * Sends the last sequence number of each entity to the other nodes, so they notice lost events even when no new change follows
+     */
+    @Scheduled(fixedDelayString = "${invalidation.heartbeat-ms:5000}")
+    public void heartbeat() {
+        sequences.forEach((entity, sequence) -> send(new InvalidationEvent(nodeId, sequence.get(), entity, null, false)));
+    }
+
+    /**
+     * Get bus statistics
+     * @return Map with the published, received, and gap counters
+     */
+    public Map<String, Long> getStats() {
+        return Map.of(
+            "published", published.get(),
+            "received", received.get(),
+            "gaps", gaps.get()
+        );
+    }
+
+    /**
+     * Get Node ID
+     * @return nodeId
+     */
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    /**
+     * Delivers an event to the other nodes
+     * @param event Event to deliver
+     */
+    protected abstract void send(InvalidationEvent event);
+
+    /**
+     * Handles an event that arrived from any node, in arrival order. Only the sequence check runs on the calling thread;
+     * the listeners are notified by the dispatcher, with repeated changes to one entity and refreshes merged while it is busy.
+     * @param event Received event
+     */
+    protected void receive(final InvalidationEvent event) {
+        if (nodeId.equals(event.origin())) return;
+
+        synchronized (this) {
+            final String stream = event.origin() + "|" + event.entity();
+            final Long last = lastSequences.get(stream);
+            if (last != null && event.sequence() <= last) {
+                return; // Heartbeat with nothing new, or a duplicate
+            }
+            lastSequences.put(stream, event.sequence());
+
+            final long expected = event.isHeartbeat() ? event.sequence() : event.sequence() - 1;
+            if (last != null && last < expected) {
+                gaps.incrementAndGet();
+                log.warn("Missed {} invalidation events {} to {} from node {}; refreshing {} caches", event.entity(), last + 1, expected, event.origin(), event.entity());
+                pendingRefreshes.add(event.entity());
+            } else if (event.isHeartbeat()) {
+                return;
+            } else {
+                received.incrementAndGet();
+                pendingChanges.put(new Change(event.entity(), event.id()), event.deleted());
+            }
+
+            if (dispatching) return; // The running dispatch picks it up
+            dispatching = true;
+        }
+        dispatcher.execute(this::dispatch);
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Set<String> refreshes;
+            final Map<Change, Boolean> changes;
+            synchronized (this) {
+                if (pendingRefreshes.isEmpty() && pendingChanges.isEmpty()) {
+                    dispatching = false;
+                    return;
+                }
+                refreshes = new HashSet<>(pendingRefreshes);
+                changes = new LinkedHashMap<>(pendingChanges);
+                pendingRefreshes.clear();
+                pendingChanges.clear();
+            }
+
+            for (InvalidationListener listener : listeners) {
+                if (refreshes.contains(listener.entity())) {
+                    notify(listener, listener::refreshAll);
+                }
+            }
+            changes.forEach((change, deleted) -> {
+                if (refreshes.contains(change.entity())) return; // The refresh already covers it
+                for (InvalidationListener listener : listeners) {
+                    if (listener.entity().equals(change.entity())) {
+                        notify(listener, () -> listener.onChange(change.id(), deleted));
+                    }
+                }
+            });
+        }
+    }
+
+    private void notify(final InvalidationListener listener, final Runnable call) {
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            log.error("Invalidation listener for {} failed", listener.entity(), e);
+        }
+    }
+
+    private record Change(String entity, Long id) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.project.back_end.invalidation;
+
+public record InvalidationEvent(String origin, long sequence, String entity, Long id, boolean deleted) {
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Checks whether the event is a heartbeat
+     * @return True if the event only carries the last sequence number of its entity
+     */
+    public boolean isHeartbeat() {
+        return id == null;
+    }
+
+    /**
+     * Encodes the event as one line of text
+     * @return Encoded event such as "node|42|doctor|7|0"
+     */
+    public String encode() {
+        return String.join(SEPARATOR, origin, Long.toString(sequence), entity == null ? "" : entity, id == null ? "" : id.toString(), deleted ? "1" : "0");
+    }
+
+    /**
+     * Decodes an event created by encode
+     * @param text Encoded event
+     * @return The event
+     * @throws IllegalArgumentException If the text is not an encoded event
+     */
+    public static InvalidationEvent decode(final String text) {
+        final String[] fields = text.split("\\|", -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Malformed invalidation event: " + text);
+        }
+        return new InvalidationEvent(
+            fields[0],
+            Long.parseLong(fields[1]),
+            fields[2].isEmpty() ? null : fields[2],
+            fields[3].isEmpty() ? null : Long.valueOf(fields[3]),
+            fields[4].equals("1")
+        );
+    }
+}
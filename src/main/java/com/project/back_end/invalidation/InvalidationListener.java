@@ -0,0 +1,21 @@
+package com.project.back_end.invalidation;
+
+public interface InvalidationListener {
+    /**
+     * Get the entity type the cache holds
+     * @return Entity type (doctor, patient)
+     */
+    String entity();
+
+    /**
+     * Evicts or refreshes one entity changed on another node
+     * @param id ID of the entity
+     * @param deleted True if the entity was deleted
+     */
+    void onChange(Long id, boolean deleted);
+
+    /**
+     * Reloads the whole cache, after events from another node were missed
+     */
+    void refreshAll();
+}
@@ -0,0 +1,89 @@
+package com.project.back_end.invalidation;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LoopbackSocketInvalidationBus extends InvalidationBus implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(LoopbackSocketInvalidationBus.class);
+    private static final int MAX_DATAGRAM = 512;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers;
+    private final Thread receiver;
+    private final ExecutorService dispatcher;
+
+    /**
+     * Constructor for LoopbackSocketInvalidationBus
+     * @param port Port this node listens on
+     * @param peerPorts Ports of the other nodes
+     * @throws SocketException If the port cannot be bound
+     */
+    public LoopbackSocketInvalidationBus(final int port, final List<Integer> peerPorts) throws SocketException {
+        this(port, peerPorts, Executors.newSingleThreadExecutor(task -> daemon(task, "invalidation-dispatcher-" + port)));
+    }
+
+    private LoopbackSocketInvalidationBus(final int port, final List<Integer> peerPorts, final ExecutorService dispatcher) throws SocketException {
+        super(dispatcher); // Listeners may reload from the database; the receiver thread must keep draining the socket
+        this.dispatcher = dispatcher;
+        final InetAddress loopback = InetAddress.getLoopbackAddress();
+        this.socket = new DatagramSocket(new InetSocketAddress(loopback, port));
+        this.peers = peerPorts.stream().filter(peer -> peer != port).map(peer -> new InetSocketAddress(loopback, peer)).toList();
+        this.receiver = daemon(this::receiveLoop, "invalidation-receiver-" + port);
+        this.receiver.start();
+    }
+
+    @Override
+    protected void send(final InvalidationEvent event) {
+        final byte[] bytes = event.encode().getBytes(StandardCharsets.UTF_8);
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(bytes, bytes.length, peer));
+            } catch (IOException e) {
+                log.warn("Could not send invalidation event to {}: {}", peer, e.getMessage()); // The peer sees a gap
+            }
+        }
+    }
+
+    /**
+     * Stops listening
+     */
+    @Override
+    public void close() {
+        socket.close();
+        dispatcher.shutdown();
+    }
+
+    private static Thread daemon(final Runnable task, final String name) {
+        final Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void receiveLoop() {
+        final byte[] buffer = new byte[MAX_DATAGRAM];
+        while (!socket.isClosed()) {
+            final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                receive(InvalidationEvent.decode(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Invalidation receive failed: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.error("Invalidation event could not be handled", e);
+            }
+        }
+    }
+}
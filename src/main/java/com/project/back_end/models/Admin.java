@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.TableGenerator;
 import jakarta.validation.constraints.NotNull;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -15,7 +16,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @Entity
 public class Admin {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "admin_ids")
+    @TableGenerator(name = "admin_ids", table = IdBlocks.TABLE, pkColumnName = IdBlocks.NAME_COLUMN, valueColumnName = IdBlocks.VALUE_COLUMN,
+        pkColumnValue = IdBlocks.ADMIN, allocationSize = IdBlocks.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull(message = "username cannot be null")
@@ -8,8 +8,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -20,9 +24,19 @@ import jakarta.validation.constraints.Size;
  * - This model links together the Doctor and Patient entities to form the core of the clinic's scheduling system.
  */
 @Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_appointment_doctor_time", columnNames = {"doctor_id", "appointment_time"}),
+    indexes = {
+        @Index(name = "idx_appointment_patient_status_time", columnList = "patient_id, status, appointment_time"),
+        @Index(name = "idx_appointment_patient_time", columnList = "patient_id, appointment_time"),
+        @Index(name = "idx_appointment_time", columnList = "appointment_time")
+    }
+)
 public class Appointment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_ids")
+    @TableGenerator(name = "appointment_ids", table = IdBlocks.TABLE, pkColumnName = IdBlocks.NAME_COLUMN, valueColumnName = IdBlocks.VALUE_COLUMN,
+        pkColumnValue = IdBlocks.APPOINTMENT, allocationSize = IdBlocks.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne
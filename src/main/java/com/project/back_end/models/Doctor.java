@@ -1,16 +1,30 @@
 package com.project.back_end.models;
 
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
@@ -20,19 +34,40 @@ import jakarta.validation.constraints.Size;
  * - This model is crucial for mapping appointments and verifying doctor credentials.
  */
 @Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_doctor_email", columnNames = "email"),
+    indexes = {
+        @Index(name = "idx_doctor_slot_periods", columnList = "slot_periods"),
+        @Index(name = "idx_doctor_name", columnList = "name_key, id"),
+        @Index(name = "idx_doctor_specialty", columnList = "specialty_key")
+    }
+)
 public class Doctor {
+    public static final int MORNING = 1; // Some slot starts before noon
+    public static final int AFTERNOON = 2; // Some slot starts at or after noon
+    private static final int NOON = 12 * 60;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "doctor_ids")
+    @TableGenerator(name = "doctor_ids", table = IdBlocks.TABLE, pkColumnName = IdBlocks.NAME_COLUMN, valueColumnName = IdBlocks.VALUE_COLUMN,
+        pkColumnValue = IdBlocks.DOCTOR, allocationSize = IdBlocks.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
     @Size(min = 3, max = 100)
     private String name;
 
+    @JsonIgnore
+    private String nameKey; // Name as sorted and paged by name, see nameKey(String)
+
     @NotNull
     @Size(min = 3, max = 50)
     private String specialty; // Medical specialty
 
+    @JsonIgnore
+    private String specialtyKey; // Lower-cased specialty, so case-insensitive specialty filters can use an index
+
     @NotNull
     @Email
     private String email;
@@ -47,8 +82,16 @@ public class Doctor {
     @Pattern(regexp = "\\d{10}", message = "Phone number must be 10 digits")
     private String phone;
 
+    @Valid
     @ElementCollection
-    private List<String> availableTimes; // Example: "09:00 - 10:00"
+    @CollectionTable(name = "doctor_schedule", joinColumns = @JoinColumn(name = "doctor_id"), indexes = @Index(name = "idx_doctor_schedule_doctor", columnList = "doctor_id"))
+    private List<ScheduleWindow> schedule = new ArrayList<>(); // Example: MONDAY 540 - 720
+
+    @Min(5)
+    private int slotMinutes = 60;
+
+    @JsonIgnore
+    private int slotPeriods; // MORNING and/or AFTERNOON, derived from the schedule so AM/PM filters need no schedules
 
     private int yearsOfExperience;
 
@@ -91,6 +134,14 @@ public class Doctor {
         return this.email;
     }
 
+    /**
+     * Get Password
+     * @return password
+     */
+    public String getPassword() {
+        return this.password;
+    }
+
     /**
      * Get Phone
      * @return phone
@@ -100,11 +151,27 @@ public class Doctor {
     }
 
     /**
-     * Get Available Times
-     * @return availableTimes
+     * Get Schedule
+     * @return schedule
+     */
+    public List<ScheduleWindow> getSchedule() {
+        return this.schedule;
+    }
+
+    /**
+     * Get Slot Minutes
+     * @return slotMinutes
+     */
+    public int getSlotMinutes() {
+        return this.slotMinutes;
+    }
+
+    /**
+     * Get Slot Periods
+     * @return slotPeriods, a combination of MORNING and AFTERNOON
      */
-    public List<String> getAvailableTimes() {
-        return this.availableTimes;
+    public int getSlotPeriods() {
+        return this.slotPeriods;
     }
 
     /**
@@ -137,6 +204,7 @@ public class Doctor {
      */
     public void setName(String name) {
         this.name = name;
+        updateNameKey();
     }
 
     /**
@@ -145,6 +213,7 @@ public class Doctor {
      */
     public void setSpecialty(String specialty) {
         this.specialty = specialty;
+        updateSpecialtyKey();
     }
 
     /**
@@ -172,11 +241,143 @@ public class Doctor {
     }
 
     /**
-     * Set Available Times
-     * @param availableTimes Available Times
+     * Set Schedule
+     * @param schedule Schedule
+     */
+    public void setSchedule(List<ScheduleWindow> schedule) {
+        this.schedule = schedule;
+        updateSlotPeriods();
+    }
+
+    /**
+     * Set Slot Minutes
+     * @param slotMinutes Slot Minutes
+     */
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+        updateSlotPeriods();
+    }
+
+    /**
+     * Sets the schedule from legacy slot strings, which apply to every day of the week.
+     * The slot length becomes the shortest of the given slots.
+     * @param availableTimes Slots such as "09:00 - 10:00"
      */
     public void setAvailableTimes(List<String> availableTimes) {
-        this.availableTimes = availableTimes;
+        List<int[]> slots = new ArrayList<>();
+        int shortest = Integer.MAX_VALUE;
+        for (String slot : availableTimes == null ? List.<String>of() : availableTimes) {
+            int[] minutes = ScheduleWindow.parseSlot(slot);
+            shortest = Math.min(shortest, minutes[1] - minutes[0]);
+            slots.add(minutes);
+        }
+        slots.sort((left, right) -> Integer.compare(left[0], right[0]));
+
+        List<int[]> merged = new ArrayList<>(); // back-to-back slots become one window
+        for (int[] slot : slots) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && slot[0] <= last[1]) {
+                last[1] = Math.max(last[1], slot[1]);
+            } else {
+                merged.add(new int[] { slot[0], slot[1] });
+            }
+        }
+
+        List<ScheduleWindow> windows = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            for (int[] window : merged) {
+                windows.add(new ScheduleWindow(day, window[0], window[1]));
+            }
+        }
+        this.schedule = windows;
+        if (shortest != Integer.MAX_VALUE && shortest > 0) {
+            this.slotMinutes = shortest;
+        }
+        updateSlotPeriods();
+    }
+
+    /**
+     * Recomputes the columns derived from other fields before the doctor is stored
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateDerivedColumns() {
+        updateSlotPeriods();
+        updateSpecialtyKey();
+        updateNameKey();
+    }
+
+    /**
+     * Recomputes the name key from the name
+     */
+    public void updateNameKey() {
+        this.nameKey = nameKey(this.name);
+    }
+
+    /**
+     * Gets the key doctors are sorted and paged by name with, in the database and in the directory snapshot alike.
+     * The key is lower-cased and without accents, so Java's string order and the usual database collations agree on it.
+     * @param name Name of the doctor
+     * @return Name key, or null if the name is null
+     */
+    public static String nameKey(final String name) {
+        if (name == null) return null;
+        final String lower = name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) >= 0x80) {
+                return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * Recomputes the specialty key from the specialty
+     */
+    public void updateSpecialtyKey() {
+        this.specialtyKey = this.specialty == null ? null : this.specialty.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Recomputes the slot periods from the schedule
+     */
+    public void updateSlotPeriods() {
+        int periods = 0;
+        if (hasSlotStartingBetween(0, NOON)) periods |= MORNING;
+        if (hasSlotStartingBetween(NOON, MINUTES_PER_DAY)) periods |= AFTERNOON;
+        this.slotPeriods = periods;
+    }
+
+    /**
+     * Expands the schedule of a day of the week into slot start times
+     * @param day Day of the week
+     * @return Sorted slot start times in minutes since midnight
+     */
+    public int[] getSlotStarts(DayOfWeek day) {
+        return ScheduleWindow.expandSlots(this.schedule, this.slotMinutes, day);
+    }
+
+    /**
+     * Checks whether any slot of the week starts within a time range
+     * @param fromMinute Start of the range in minutes since midnight
+     * @param toMinute End of the range in minutes since midnight (exclusive)
+     * @return True if at least one slot starts in the range
+     */
+    public boolean hasSlotStartingBetween(int fromMinute, int toMinute) {
+        if (this.schedule == null) return false;
+        for (ScheduleWindow window : this.schedule) {
+            int lastStart = window.getEndMinute() - slotMinutes;
+            if (lastStart < window.getStartMinute()) continue;
+            int firstStartInRange = window.getStartMinute();
+            if (firstStartInRange < fromMinute) {
+                int slotsToSkip = (fromMinute - firstStartInRange + slotMinutes - 1) / slotMinutes;
+                firstStartInRange += slotsToSkip * slotMinutes;
+            }
+            if (firstStartInRange <= lastStart && firstStartInRange < toMinute) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
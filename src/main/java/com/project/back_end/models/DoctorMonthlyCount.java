@@ -0,0 +1,110 @@
+package com.project.back_end.models;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Objects;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * DoctorMonthlyCount model stores the number of appointments a doctor has in one calendar month, with the month as yyyyMM.
+ */
+@Entity
+@IdClass(DoctorMonthlyCount.Key.class)
+@Table(indexes = @Index(name = "idx_monthly_count_top", columnList = "month_key, patients_seen"))
+public class DoctorMonthlyCount {
+    @Id
+    private Long doctorId;
+
+    @Id
+    private int monthKey;
+
+    private long patientsSeen;
+
+    /**
+     * Default constructor for JPA
+     */
+    public DoctorMonthlyCount() {
+    }
+
+    /**
+     * Get Doctor Id
+     * @return doctorId
+     */
+    public Long getDoctorId() {
+        return this.doctorId;
+    }
+
+    /**
+     * Get Month Key
+     * @return monthKey as yyyyMM
+     */
+    public int getMonthKey() {
+        return this.monthKey;
+    }
+
+    /**
+     * Get Patients Seen
+     * @return patientsSeen
+     */
+    public long getPatientsSeen() {
+        return this.patientsSeen;
+    }
+
+    /**
+     * Get the key of the month of a time
+     * @param time Appointment time
+     * @return Month as yyyyMM
+     */
+    public static int monthKey(final LocalDateTime time) {
+        return time.getYear() * 100 + time.getMonthValue();
+    }
+
+    /**
+     * Get the key of a month
+     * @param month Month
+     * @return Month as yyyyMM
+     */
+    public static int monthKey(final YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    /**
+     * Composite key of a doctor and a month
+     */
+    public static class Key implements Serializable {
+        private Long doctorId;
+        private int monthKey;
+
+        /**
+         * Default constructor for JPA
+         */
+        public Key() {
+        }
+
+        /**
+         * Key of a doctor in a month
+         * @param doctorId ID of the doctor
+         * @param monthKey Month as yyyyMM
+         */
+        public Key(final Long doctorId, final int monthKey) {
+            this.doctorId = doctorId;
+            this.monthKey = monthKey;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key key && Objects.equals(doctorId, key.doctorId) && monthKey == key.monthKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, monthKey);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.back_end.models;
+
+/**
+ * IdBlocks names the table and rows the entity ID generators reserve blocks of IDs from.
+ */
+public final class IdBlocks {
+    public static final String TABLE = "id_blocks";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50; // Matches hibernate.jdbc.batch_size
+
+    public static final String ADMIN = "admin";
+    public static final String APPOINTMENT = "appointment";
+    public static final String DOCTOR = "doctor";
+    public static final String PATIENT = "patient";
+    public static final String REVOKED_TOKEN = "revoked_token";
+
+    private IdBlocks() {
+    }
+}
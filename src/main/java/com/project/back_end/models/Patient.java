@@ -9,6 +9,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
@@ -20,9 +23,15 @@ import jakarta.validation.constraints.Size;
  * - It captures personal details like contact information and address, and links to appointments and prescriptions indirectly.
  */
 @Entity
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "uk_patient_email", columnNames = "email"),
+    @UniqueConstraint(name = "uk_patient_phone", columnNames = "phone")
+})
 public class Patient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "patient_ids")
+    @TableGenerator(name = "patient_ids", table = IdBlocks.TABLE, pkColumnName = IdBlocks.NAME_COLUMN, valueColumnName = IdBlocks.VALUE_COLUMN,
+        pkColumnValue = IdBlocks.PATIENT, allocationSize = IdBlocks.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -0,0 +1,87 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * RevokedToken model records the digest of a token that was revoked before it expired, when it was revoked, and when it expires.
+ */
+@Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_revoked_token_digest", columnNames = "digest"),
+    indexes = {
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at"),
+        @Index(name = "idx_revoked_token_revoked", columnList = "revoked_at")
+    }
+)
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "revoked_token_ids")
+    @TableGenerator(name = "revoked_token_ids", table = IdBlocks.TABLE, pkColumnName = IdBlocks.NAME_COLUMN, valueColumnName = IdBlocks.VALUE_COLUMN,
+        pkColumnValue = IdBlocks.REVOKED_TOKEN, allocationSize = IdBlocks.ALLOCATION_SIZE)
+    private Long id;
+
+    @NotNull
+    private String digest;
+
+    private long revokedAt; // Epoch millis
+
+    private long expiresAt; // Epoch millis
+
+    /**
+     * Default constructor for JPA
+     */
+    public RevokedToken() {
+    }
+
+    /**
+     * Constructor for RevokedToken
+     * @param digest Digest of the token
+     * @param revokedAt Time of the revocation in epoch millis
+     * @param expiresAt Expiry of the token in epoch millis
+     */
+    public RevokedToken(String digest, long revokedAt, long expiresAt) {
+        this.digest = digest;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Get Id
+     * @return id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Get Digest
+     * @return digest
+     */
+    public String getDigest() {
+        return this.digest;
+    }
+
+    /**
+     * Get Revoked At
+     * @return revokedAt in epoch millis
+     */
+    public long getRevokedAt() {
+        return this.revokedAt;
+    }
+
+    /**
+     * Get Expires At
+     * @return expiresAt in epoch millis
+     */
+    public long getExpiresAt() {
+        return this.expiresAt;
+    }
+}
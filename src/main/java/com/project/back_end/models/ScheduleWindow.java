@@ -0,0 +1,157 @@
+package com.project.back_end.models;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * ScheduleWindow model represents one block of a doctor's weekly schedule, such as Monday 09:00 to 12:00.
+ * - Times are stored as minutes since midnight.
+ */
+@Embeddable
+public class ScheduleWindow {
+    @NotNull
+    @Enumerated(EnumType.ORDINAL)
+    @Column(columnDefinition = "TINYINT")
+    private DayOfWeek dayOfWeek;
+
+    @Min(0)
+    @Max(24 * 60)
+    private short startMinute;
+
+    @Min(0)
+    @Max(24 * 60)
+    private short endMinute;
+
+    /**
+     * Default constructor for JPA and Jackson
+     */
+    public ScheduleWindow() {
+    }
+
+    /**
+     * Constructor for ScheduleWindow
+     * @param dayOfWeek Day of the week
+     * @param startMinute Start of the window in minutes since midnight
+     * @param endMinute End of the window in minutes since midnight (exclusive)
+     */
+    public ScheduleWindow(DayOfWeek dayOfWeek, int startMinute, int endMinute) {
+        this.dayOfWeek = dayOfWeek;
+        this.startMinute = (short) startMinute;
+        this.endMinute = (short) endMinute;
+    }
+
+    /**
+     * Get a copy of the window, such as for a cache that must not change with the entity
+     * @return New window with the same day and times
+     */
+    public ScheduleWindow copy() {
+        return new ScheduleWindow(this.dayOfWeek, this.startMinute, this.endMinute);
+    }
+
+    /**
+     * Get Day of Week
+     * @return dayOfWeek
+     */
+    public DayOfWeek getDayOfWeek() {
+        return this.dayOfWeek;
+    }
+
+    /**
+     * Get Start Minute
+     * @return startMinute
+     */
+    public int getStartMinute() {
+        return this.startMinute;
+    }
+
+    /**
+     * Get End Minute
+     * @return endMinute
+     */
+    public int getEndMinute() {
+        return this.endMinute;
+    }
+
+    /**
+     * Set Day of Week
+     * @param dayOfWeek Day of Week
+     */
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    /**
+     * Set Start Minute
+     * @param startMinute Start Minute
+     */
+    public void setStartMinute(int startMinute) {
+        this.startMinute = (short) startMinute;
+    }
+
+    /**
+     * Set End Minute
+     * @param endMinute End Minute
+     */
+    public void setEndMinute(int endMinute) {
+        this.endMinute = (short) endMinute;
+    }
+
+    /**
+     * Expands the windows of a weekday into slot start times
+     * @param schedule Windows of the weekly schedule
+     * @param slotMinutes Length of each slot in minutes
+     * @param day Day of the week
+     * @return Sorted slot start times in minutes since midnight
+     */
+    public static int[] expandSlots(List<ScheduleWindow> schedule, int slotMinutes, DayOfWeek day) {
+        int count = 0;
+        int[] starts = new int[16];
+        for (ScheduleWindow window : schedule) {
+            if (window.getDayOfWeek() != day) continue;
+            for (int start = window.getStartMinute(); start + slotMinutes <= window.getEndMinute(); start += slotMinutes) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = start;
+            }
+        }
+        starts = Arrays.copyOf(starts, count);
+        Arrays.sort(starts);
+        return starts;
+    }
+
+    /**
+     * Formats a slot the way availability is returned to clients
+     * @param startMinute Start of the slot in minutes since midnight
+     * @param slotMinutes Length of the slot in minutes
+     * @return Slot such as "09:00 - 10:00"
+     */
+    public static String formatSlot(int startMinute, int slotMinutes) {
+        int endMinute = startMinute + slotMinutes;
+        return String.format("%02d:%02d - %02d:%02d", startMinute / 60, startMinute % 60, endMinute / 60, endMinute % 60);
+    }
+
+    /**
+     * Parses a legacy slot string into start and end minutes
+     * @param slot Slot such as "09:00 - 10:00"
+     * @return Array with the start and end minute
+     */
+    public static int[] parseSlot(String slot) {
+        String[] parts = slot.split("-");
+        return new int[] { parseMinute(parts[0]), parseMinute(parts[1]) };
+    }
+
+    private static int parseMinute(String time) {
+        String[] hourAndMinute = time.trim().split(":");
+        return Integer.parseInt(hourAndMinute[0]) * 60 + Integer.parseInt(hourAndMinute[1]);
+    }
+}
@@ -1,41 +1,89 @@
 package com.project.back_end.repositories;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.DailyReportRow;
+import com.project.back_end.DTO.PatientAppointment;
 import com.project.back_end.models.Appointment;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
-    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor LEFT JOIN FETCH a.availability WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
+    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
     List<Appointment> findByDoctorIdAndAppointmentTimeBetween(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
-    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.patient LEFT JOIN FETCH a.doctor WHERE a.doctor.id = :doctorId AND LOWER(a.patient.name) LIKE LOWER(CONCAT('%', :patientName, '%')) AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(@Param("doctorId") Long doctorId, @Param("patientName") String patientName, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    @Query("SELECT a.appointmentTime FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<LocalDateTime> findAppointmentTimesByDoctorIdBetween(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT a.doctor.id, a.appointmentTime FROM Appointment a WHERE a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<Object[]> findDoctorIdAndAppointmentTimeBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT a.doctor.id, COUNT(a) FROM Appointment a WHERE a.appointmentTime >= :start AND a.appointmentTime < :end GROUP BY a.doctor.id")
+    List<Object[]> countByDoctorIdBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT a.doctor.id, a.appointmentTime FROM Appointment a WHERE a.doctor.id IN :doctorIds AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<Object[]> findDoctorIdAndAppointmentTimeByDoctorIdInBetween(@Param("doctorIds") Collection<Long> doctorIds, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) "
+        + "FROM Appointment a JOIN a.doctor d JOIN a.patient p "
+        + "WHERE d.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDayViewByDoctorId(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) "
+        + "FROM Appointment a JOIN a.doctor d JOIN a.patient p "
+        + "WHERE d.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDayViewByDoctorIdAndPatientName(@Param("doctorId") Long doctorId, @Param("patientName") String patientName, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"), // Rows come through a server-side cursor in fixed batches; needs useCursorFetch=true on MySQL
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.project.back_end.DTO.DailyReportRow(d.id, d.name, a.appointmentTime, a.status, p.name, p.phone) "
+        + "FROM Appointment a JOIN a.doctor d JOIN a.patient p "
+        + "WHERE a.appointmentTime >= :start AND a.appointmentTime < :end ORDER BY d.nameKey, d.id, a.appointmentTime")
+    Stream<DailyReportRow> streamDailyReport(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
     @Modifying
     @Transactional
     @Query("DELETE FROM Appointment a WHERE a.doctor.id = :doctorId")
     void deleteAllByDoctorId(@Param("doctorId") Long doctorId);
 
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId")
-    List<Appointment> findByPatientId(@Param("patientId") Long patientId);
+    @Query("SELECT new com.project.back_end.DTO.PatientAppointment(a.id, d.id, d.name, d.specialty, a.patient.id, a.appointmentTime, a.status, a.reasonForVisit, a.pharmacyName) "
+        + "FROM Appointment a JOIN a.doctor d WHERE a.patient.id = :patientId ORDER BY a.appointmentTime")
+    List<PatientAppointment> findByPatientId(@Param("patientId") Long patientId);
+
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.project.back_end.DTO.PatientAppointment(a.id, d.id, d.name, d.specialty, a.patient.id, a.appointmentTime, a.status, a.reasonForVisit, a.pharmacyName) "
+        + "FROM Appointment a JOIN a.doctor d WHERE a.patient.id = :patientId ORDER BY a.appointmentTime")
+    Stream<PatientAppointment> streamByPatientId(@Param("patientId") Long patientId);
 
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.status = :status ORDER BY a.appointmentTime ASC")
-    List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(@Param("patientId") Long patientId, @Param("status") int status);
+    @Query("SELECT new com.project.back_end.DTO.PatientAppointment(a.id, d.id, d.name, d.specialty, a.patient.id, a.appointmentTime, a.status, a.reasonForVisit, a.pharmacyName) "
+        + "FROM Appointment a JOIN a.doctor d WHERE a.patient.id = :patientId AND a.status = :status ORDER BY a.appointmentTime ASC")
+    List<PatientAppointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(@Param("patientId") Long patientId, @Param("status") int status);
 
-    @Query("SELECT a FROM Appointment a WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND a.patient.id = :patientId")
-    List<Appointment> findByDoctorNameAndPatientId(@Param("doctorName") String doctorName, @Param("patientId") Long patientId);
+    @Query("SELECT new com.project.back_end.DTO.PatientAppointment(a.id, d.id, d.name, d.specialty, a.patient.id, a.appointmentTime, a.status, a.reasonForVisit, a.pharmacyName) "
+        + "FROM Appointment a JOIN a.doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND a.patient.id = :patientId ORDER BY a.appointmentTime")
+    List<PatientAppointment> findByDoctorNameAndPatientId(@Param("doctorName") String doctorName, @Param("patientId") Long patientId);
 
-    @Query("SELECT a FROM Appointment a WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND a.patient.id = :patientId AND a.status = :status")
-    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(@Param("doctorName") String doctorName, @Param("patientId") Long patientId, @Param("status") int status);
+    @Query("SELECT new com.project.back_end.DTO.PatientAppointment(a.id, d.id, d.name, d.specialty, a.patient.id, a.appointmentTime, a.status, a.reasonForVisit, a.pharmacyName) "
+        + "FROM Appointment a JOIN a.doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) AND a.patient.id = :patientId AND a.status = :status ORDER BY a.appointmentTime")
+    List<PatientAppointment> filterByDoctorNameAndPatientIdAndStatus(@Param("doctorName") String doctorName, @Param("patientId") Long patientId, @Param("status") int status);
 }
@@ -0,0 +1,46 @@
+package com.project.back_end.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.project.back_end.models.DoctorMonthlyCount;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface DoctorMonthlyCountRepository extends JpaRepository<DoctorMonthlyCount, DoctorMonthlyCount.Key> {
+
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO DoctorMonthlyCount c (c.doctorId, c.monthKey, c.patientsSeen) VALUES (:doctorId, :monthKey, :delta) "
+        + "ON CONFLICT (doctorId, monthKey) DO UPDATE SET patientsSeen = c.patientsSeen + excluded.patientsSeen")
+    int add(@Param("doctorId") Long doctorId, @Param("monthKey") int monthKey, @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DoctorMonthlyCount c SET c.patientsSeen = c.patientsSeen - :delta WHERE c.doctorId = :doctorId AND c.monthKey = :monthKey AND c.patientsSeen >= :delta")
+    int subtract(@Param("doctorId") Long doctorId, @Param("monthKey") int monthKey, @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO DoctorMonthlyCount c (c.doctorId, c.monthKey, c.patientsSeen) VALUES (:doctorId, :monthKey, :count) "
+        + "ON CONFLICT (doctorId, monthKey) DO UPDATE SET patientsSeen = excluded.patientsSeen")
+    int set(@Param("doctorId") Long doctorId, @Param("monthKey") int monthKey, @Param("count") long count);
+
+    @Query("SELECT c FROM DoctorMonthlyCount c WHERE c.monthKey = :monthKey ORDER BY c.patientsSeen DESC")
+    List<DoctorMonthlyCount> findTopByMonthKey(@Param("monthKey") int monthKey, Pageable page);
+
+    @Query("SELECT c FROM DoctorMonthlyCount c WHERE c.monthKey = :monthKey")
+    List<DoctorMonthlyCount> findByMonthKey(@Param("monthKey") int monthKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DoctorMonthlyCount c WHERE c.doctorId = :doctorId")
+    void deleteAllByDoctorId(@Param("doctorId") Long doctorId);
+}
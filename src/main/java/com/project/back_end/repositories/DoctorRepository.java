@@ -1,23 +1,69 @@
 package com.project.back_end.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.project.back_end.models.Doctor;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     Doctor findByEmail(String email);
+
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.schedule WHERE d.id = :id")
+    Doctor findWithScheduleById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.schedule")
+    List<Doctor> findAllWithSchedule();
+
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.schedule WHERE d.id IN :ids")
+    List<Doctor> findAllWithScheduleByIdIn(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT d FROM Doctor d WHERE d.name LIKE CONCAT('%', :name, '%')")
+    @Query("SELECT d FROM Doctor d ORDER BY d.id")
+    List<Doctor> findPageOrderById(Pageable page);
+
+    @Query("SELECT d FROM Doctor d WHERE d.id > :afterId ORDER BY d.id")
+    List<Doctor> findPageAfterIdOrderById(@Param("afterId") Long afterId, Pageable page);
+
+    @Query("SELECT d FROM Doctor d ORDER BY d.nameKey, d.id")
+    List<Doctor> findPageOrderByName(Pageable page);
+
+    @Query("SELECT d FROM Doctor d WHERE d.nameKey >= :afterKey AND (d.nameKey > :afterKey OR d.id > :afterId) ORDER BY d.nameKey, d.id") // The leading bound lets the name index seek
+    List<Doctor> findPageAfterNameOrderByName(@Param("afterKey") String afterKey, @Param("afterId") Long afterId, Pageable page);
+
+    @Query("SELECT d FROM Doctor d WHERE d.nameKey IS NULL")
+    List<Doctor> findAllWithoutNameKey();
+
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"), // Same cursor fetch as the appointment streams; needs useCursorFetch=true on MySQL
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Doctor d ORDER BY d.id")
+    Stream<Doctor> streamAllOrderById();
+
+    @Query("SELECT DISTINCT d FROM Doctor d JOIN FETCH d.schedule WHERE d.slotPeriods = 0")
+    List<Doctor> findAllWithScheduleAndNoSlotPeriods();
+
+    @Query("SELECT d.id, s FROM Doctor d JOIN d.schedule s WHERE d.id IN :ids")
+    List<Object[]> findSchedulesByDoctorIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.schedule WHERE d.name LIKE CONCAT('%', :name, '%')")
     List<Doctor> findByNameLike(@Param("name") String name);
 
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) AND LOWER(d.specialty) = LOWER(:specialty)")
+    // Specialties match on the lower-cased specialty key, so case is ignored on any collation and the specialty index is used
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.schedule WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) AND d.specialtyKey = LOWER(:specialty)")
     List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(@Param("name") String name, @Param("specialty") String specialty);
 
-    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.schedule WHERE d.specialtyKey = LOWER(:specialty)")
+    List<Doctor> findBySpecialtyIgnoreCase(@Param("specialty") String specialty);
 }
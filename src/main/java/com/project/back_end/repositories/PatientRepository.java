@@ -9,5 +9,18 @@ import com.project.back_end.models.Patient;
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Patient findByEmail(String email);
 
-    Patient findByEmailOrPhone(String email, String phone);
+    boolean existsByEmail(String email);
+
+    boolean existsByPhone(String phone);
+
+    /**
+     * Checks whether a patient already uses an email or a phone number.
+     * Two lookups on the unique indexes, since an OR across both columns cannot use either index.
+     * @param email Email of the patient
+     * @param phone Phone of the patient
+     * @return True if either is taken
+     */
+    default boolean isEmailOrPhoneTaken(String email, String phone) {
+        return existsByEmail(email) || existsByPhone(phone);
+    }
 }
@@ -0,0 +1,27 @@
+package com.project.back_end.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.project.back_end.models.RevokedToken;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    @Query("SELECT t FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<RevokedToken> findUnexpired(@Param("now") long now);
+
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt >= :since")
+    List<RevokedToken> findRevokedSince(@Param("since") long since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
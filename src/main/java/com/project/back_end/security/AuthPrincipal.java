@@ -0,0 +1,121 @@
+package com.project.back_end.security;
+
+import java.util.function.Supplier;
+
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+public class AuthPrincipal {
+    private final String role;
+    private final Long id;
+    private final String identifier;
+    private final Supplier<Object> loader;
+
+    private Object entity;
+    private boolean loaded;
+
+    /**
+     * Constructor for AuthPrincipal
+     * @param role Type of user (admin, doctor, patient)
+     * @param id ID of the admin, doctor, or patient
+     * @param identifier Username for Admin and email for Doctor and Patient
+     * @param loader Loads the admin, doctor, or patient entity on first use
+     */
+    public AuthPrincipal(final String role, final Long id, final String identifier, final Supplier<Object> loader) {
+        this.role = role;
+        this.id = id;
+        this.identifier = identifier;
+        this.loader = loader;
+    }
+
+    /**
+     * Constructor for AuthPrincipal whose entity has already been loaded
+     * @param role Type of user (admin, doctor, patient)
+     * @param id ID of the admin, doctor, or patient
+     * @param identifier Username for Admin and email for Doctor and Patient
+     * @param entity Admin, doctor, or patient entity
+     */
+    public AuthPrincipal(final String role, final Long id, final String identifier, final Object entity) {
+        this(role, id, identifier, () -> entity);
+        this.entity = entity;
+        this.loaded = true;
+    }
+
+    /**
+     * Get Role
+     * @return role
+     */
+    public String getRole() {
+        return this.role;
+    }
+
+    /**
+     * Get Id
+     * @return id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Get Identifier
+     * @return identifier
+     */
+    public String getIdentifier() {
+        return this.identifier;
+    }
+
+    /**
+     * Checks whether the principal is of a given user type
+     * @param user Type of user (admin, doctor, patient)
+     * @return True if the principal has that role
+     */
+    public boolean hasRole(final String user) {
+        return this.role.equalsIgnoreCase(user);
+    }
+
+    /**
+     * Get the ID of the principal if it is a patient, e.g. to recognise the patient's own slot holds
+     * @return id, or null if the principal is not a patient
+     */
+    public Long getPatientId() {
+        return hasRole("patient") ? this.id : null;
+    }
+
+    /**
+     * Get the Patient entity of the principal
+     * @return patient, or null if the principal is not a patient
+     */
+    public Patient getPatient() {
+        return hasRole("patient") ? (Patient) load() : null;
+    }
+
+    /**
+     * Get the Doctor entity of the principal
+     * @return doctor, or null if the principal is not a doctor
+     */
+    public Doctor getDoctor() {
+        return hasRole("doctor") ? (Doctor) load() : null;
+    }
+
+    /**
+     * Get the Admin entity of the principal
+     * @return admin, or null if the principal is not an admin
+     */
+    public Admin getAdmin() {
+        return hasRole("admin") ? (Admin) load() : null;
+    }
+
+    /**
+     * Loads the entity on first use
+     * @return Admin, doctor, or patient entity
+     */
+    private synchronized Object load() {
+        if (!loaded) {
+            entity = loader.get();
+            loaded = true;
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.project.back_end.security;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+public class BearerTokenFilter extends OncePerRequestFilter {
+    public static final String TOKEN_ATTRIBUTE = BearerTokenFilter.class.getName() + ".token";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            request.setAttribute(TOKEN_ATTRIBUTE, header.substring(BEARER_PREFIX.length()).trim());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
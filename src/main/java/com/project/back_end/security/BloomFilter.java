@@ -0,0 +1,58 @@
+package com.project.back_end.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Constructor for BloomFilter
+     * @param expectedEntries Number of entries the filter is sized for
+     * @param falsePositiveRate Target false positive rate at the expected number of entries
+     */
+    public BloomFilter(final int expectedEntries, final double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        long bitsNeeded = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (bitsNeeded + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+    }
+
+    /**
+     * Adds a digest to the filter
+     * @param digest Hex encoded SHA-256 digest
+     */
+    public void put(final String digest) {
+        long h1 = Long.parseUnsignedLong(digest.substring(0, 16), 16);
+        long h2 = Long.parseUnsignedLong(digest.substring(16, 32), 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Checks whether a digest may have been added
+     * @param digest Hex encoded SHA-256 digest
+     * @return False if the digest was definitely never added, true if it might have been
+     */
+    public boolean mightContain(final String digest) {
+        long h1 = Long.parseUnsignedLong(digest.substring(0, 16), 16);
+        long h2 = Long.parseUnsignedLong(digest.substring(16, 32), 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
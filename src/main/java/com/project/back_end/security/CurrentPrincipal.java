@@ -0,0 +1,17 @@
+package com.project.back_end.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentPrincipal {
+    /**
+     * Type of user the token must be issued for (admin, doctor, patient).
+     * When empty, the {user} path variable of the request is used.
+     * @return Required user type
+     */
+    String value() default "";
+}
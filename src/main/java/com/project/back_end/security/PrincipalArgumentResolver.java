@@ -0,0 +1,67 @@
+package com.project.back_end.security;
+
+import java.util.Map;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.project.back_end.services.TokenService;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class PrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final String PRINCIPAL_ATTRIBUTE = AuthPrincipal.class.getName() + ".";
+    private static final String NO_PRINCIPAL = "none";
+
+    private final TokenService tokenService;
+
+    @Override
+    public boolean supportsParameter(final MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentPrincipal.class)
+            && AuthPrincipal.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(final MethodParameter parameter, final ModelAndViewContainer mavContainer, final NativeWebRequest webRequest, final WebDataBinderFactory binderFactory) {
+        Map<String, String> pathVariables = getPathVariables(webRequest);
+        String user = parameter.getParameterAnnotation(CurrentPrincipal.class).value();
+        if (user.isEmpty()) {
+            user = pathVariables.get("user");
+        }
+        if (user == null) return null;
+
+        String attribute = PRINCIPAL_ATTRIBUTE + user.toLowerCase();
+        Object memoized = webRequest.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+        if (memoized != null) {
+            return memoized instanceof AuthPrincipal ? memoized : null;
+        }
+
+        String token = pathVariables.get("token");
+        if (token == null) {
+            token = (String) webRequest.getAttribute(BearerTokenFilter.TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        AuthPrincipal principal = token == null ? null : tokenService.resolvePrincipal(token, user);
+        webRequest.setAttribute(attribute, principal == null ? NO_PRINCIPAL : principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+
+    /**
+     * Gets the URI template variables of the matched handler
+     * @param webRequest Current request
+     * @return Map of path variable names to values
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> getPathVariables(final NativeWebRequest webRequest) {
+        Object variables = webRequest.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return variables == null ? Map.of() : (Map<String, String>) variables;
+    }
+}
@@ -0,0 +1,168 @@
+package com.project.back_end.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.invalidation.InvalidationBus;
+import com.project.back_end.invalidation.InvalidationListener;
+import com.project.back_end.models.RevokedToken;
+import com.project.back_end.repositories.RevokedTokenRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationStore implements InvalidationListener {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+    private static final String ENTITY = "revoked-token";
+    private static final long POLL_OVERLAP_MILLIS = 60_000; // Covers clock skew between nodes and revocations still committing
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final InvalidationBus invalidationBus;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>(); // digest -> token expiry (epoch millis)
+    private volatile BloomFilter filter; // replaced under this, so no add is lost during a rebuild
+    private volatile long lastPolledAt;
+
+    /**
+     * Loads the revocations of every node and builds the filter
+     */
+    @PostConstruct
+    void init() {
+        lastPolledAt = System.currentTimeMillis();
+        load();
+        rebuildFilter();
+        invalidationBus.subscribe(this);
+    }
+
+    /**
+     * Revokes a token until it expires, on this node at once and on the other nodes through the invalidation bus.
+     * Nodes that miss the event, or run without a cross-node bus, pick the revocation up on their next poll.
+     * @param digest Digest of the token
+     * @param expiresAtMillis Expiry of the token
+     */
+    public void revoke(final String digest, final long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) return;
+        add(digest, expiresAtMillis);
+
+        final RevokedToken saved;
+        try {
+            saved = revokedTokenRepository.save(new RevokedToken(digest, System.currentTimeMillis(), expiresAtMillis));
+        } catch (DataIntegrityViolationException e) {
+            return; // Already revoked, and published, by another node
+        }
+        invalidationBus.publish(ENTITY, saved.getId(), false);
+    }
+
+    /**
+     * Checks whether a token has been revoked
+     * @param digest Digest of the token
+     * @return True if the token was revoked and has not expired yet
+     */
+    public boolean isRevoked(final String digest) {
+        if (!filter.mightContain(digest)) return false;
+        return revoked.containsKey(digest);
+    }
+
+    @Override
+    public String entity() {
+        return ENTITY;
+    }
+
+    @Override
+    public void onChange(final Long id, final boolean deleted) {
+        if (deleted) return;
+        revokedTokenRepository.findById(id).ifPresent(token -> add(token.getDigest(), token.getExpiresAt()));
+    }
+
+    @Override
+    public void refreshAll() {
+        load();
+    }
+
+    /**
+     * Adds the revocations stored by any node since the last poll, so a revocation reaches every node within one interval
+     * even when the invalidation bus does not cross nodes or loses the event
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        final long now = System.currentTimeMillis();
+        try {
+            for (RevokedToken token : revokedTokenRepository.findRevokedSince(lastPolledAt - POLL_OVERLAP_MILLIS)) {
+                add(token.getDigest(), token.getExpiresAt());
+            }
+            lastPolledAt = now;
+        } catch (RuntimeException e) {
+            log.warn("Could not poll token revocations: {}", e.getMessage()); // Retried from the same time on the next poll
+        }
+    }
+
+    /**
+     * Drops revoked entries whose tokens have expired, here and in the database, and rebuilds the filter
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.compaction-interval-ms:600000}")
+    public void compact() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuildFilter();
+        try {
+            revokedTokenRepository.deleteExpired(now);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete expired token revocations: {}", e.getMessage()); // Retried on the next compaction
+        }
+    }
+
+    /**
+     * Get revocation statistics
+     * @return Map with the number of revoked tokens
+     */
+    public Map<String, Long> getStats() {
+        return Map.of("revoked", (long) revoked.size());
+    }
+
+    /**
+     * Adds a revoked token to the set and to the current filter
+     * @param digest Digest of the token
+     * @param expiresAtMillis Expiry of the token
+     */
+    private synchronized void add(final String digest, final long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) return;
+        revoked.put(digest, expiresAtMillis);
+        if (filter != null) {
+            filter.put(digest);
+        }
+    }
+
+    /**
+     * Adds every unexpired revocation stored by any node
+     */
+    private void load() {
+        for (RevokedToken token : revokedTokenRepository.findUnexpired(System.currentTimeMillis())) {
+            add(token.getDigest(), token.getExpiresAt());
+        }
+    }
+
+    /**
+     * Builds a new filter from the current set and swaps it in.
+     * Adds wait for the swap, so every token is in the filter that lookups see.
+     */
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        this.filter = rebuilt;
+    }
+}
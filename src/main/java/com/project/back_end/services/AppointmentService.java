@@ -1,44 +1,201 @@
 package com.project.back_end.services;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentSeries;
 import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
 import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.security.AuthPrincipal;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
+    private static final int MAX_SERIES_OCCURRENCES = 50; // A whole series fits in one JDBC batch (hibernate.jdbc.batch_size)
+
     private final AppointmentRepository appointmentRepository;
-    private final TokenService tokenService;
+    private final SlotIndex slotIndex;
+    private final BookingLocks bookingLocks;
+    private final SlotHoldService slotHolds;
+    private final MonthlyPatientCounts monthlyCounts;
+    private final TransactionTemplate transactions;
+    private final EntityManager entityManager;
+    private final BookingEvents bookingEvents;
 
     /**
-     * Books a new aappointment.
+     * Books a new aappointment for the authenticated patient, whatever patient the request body names.
+     * The slot is re-checked and inserted while holding the doctor's booking lock, so two patients cannot book the same slot.
+     * The doctor's monthly count is updated in the same transaction as the insert.
      * @param appointment The appointment to book
-     * @return The status of the booked appointment. 1 for successful and 0 if there's an error.
+     * @param patientId ID of the authenticated patient booking; their hold on the slot is released once booked
+     * @return The status of the booked appointment. 1 for successful, -1 if the slot is already taken or held by another patient, and 0 if there's an error.
      */
-    public int bookAppointment(final Appointment appointment) {
+    public int bookAppointment(final Appointment appointment, final Long patientId) {
+        appointment.setPatient(entityManager.getReference(Patient.class, patientId));
+        final Long doctorId = appointment.getDoctor().getId();
+        final Lock lock = bookingLocks.forDoctor(doctorId);
+        lock.lock();
         try {
-            appointmentRepository.save(appointment);
+            if (!Boolean.TRUE.equals(slotIndex.isAvailable(doctorId, appointment.getAppointmentTime(), patientId))) {
+                return -1;
+            }
+            transactions.executeWithoutResult(status -> {
+                appointmentRepository.saveAndFlush(appointment);
+                monthlyCounts.recordBooked(doctorId, appointment.getAppointmentTime());
+            });
+            slotIndex.book(doctorId, appointment.getAppointmentTime());
+            slotHolds.release(doctorId, appointment.getAppointmentTime(), patientId);
+            bookingEvents.changed(doctorId);
             return 1;
+        } catch (DataIntegrityViolationException error) {
+            return -1; // Booked on another instance
         } catch (Exception error) {
             return 0;
+        } finally {
+            lock.unlock();
         }
     }
     
     /**
-     * Updates an existing appointment
+     * Books every occurrence of a series, or none of them.
+     * All occurrences are checked with one query over the days they span while holding the doctor's booking lock,
+     * then inserted as one batch in a single transaction together with the monthly counts.
+     * @param series Doctor, first time, interval, and number of occurrences
+     * @param principal Authenticated patient of the request
+     * @return Response with the booked occurrences, or the conflicts that prevented booking
+     */
+    public ResponseEntity<Map<String, Object>> bookSeries(final AppointmentSeries series, final AuthPrincipal principal) {
+        if (series.doctorId() == null || series.firstAppointmentTime() == null || series.intervalDays() < 1
+                || series.occurrences() < 1 || series.occurrences() > MAX_SERIES_OCCURRENCES) {
+            return ResponseEntity.badRequest().body(Map.of("error", "A series needs a doctor, a first time, an interval of at least one day, and 1 to " + MAX_SERIES_OCCURRENCES + " occurrences."));
+        }
+
+        final Long doctorId = series.doctorId();
+        final Long patientId = principal.getId();
+        final List<LocalDateTime> times = new ArrayList<>(series.occurrences());
+        for (int i = 0; i < series.occurrences(); i++) {
+            times.add(series.firstAppointmentTime().plusDays((long) i * series.intervalDays()));
+        }
+
+        final Lock lock = bookingLocks.forDoctor(doctorId);
+        final List<Appointment> appointments = new ArrayList<>(times.size());
+        lock.lock();
+        try {
+            final Map<LocalDateTime, String> conflicts = slotIndex.findConflicts(doctorId, times, patientId);
+            if (conflicts == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Doctor not found."));
+            }
+            final LocalDateTime now = LocalDateTime.now();
+            for (LocalDateTime time : times) {
+                if (!time.isAfter(now)) conflicts.putIfAbsent(time, "In the past");
+            }
+            if (!conflicts.isEmpty()) {
+                final List<Map<String, String>> reasons = new ArrayList<>(conflicts.size());
+                conflicts.forEach((time, reason) -> reasons.add(Map.of("appointmentTime", time.toString(), "reason", reason)));
+                return ResponseEntity.status(409).body(Map.of("booked", List.of(), "conflicts", reasons));
+            }
+
+            transactions.executeWithoutResult(status -> {
+                for (LocalDateTime time : times) {
+                    final Appointment appointment = new Appointment();
+                    appointment.setDoctor(entityManager.getReference(Doctor.class, doctorId));
+                    appointment.setPatient(entityManager.getReference(Patient.class, patientId));
+                    appointment.setAppointmentTime(time);
+                    appointment.setReasonForVisit(series.reasonForVisit());
+                    appointments.add(appointment);
+                }
+                appointmentRepository.saveAll(appointments);
+                appointmentRepository.flush();
+                monthlyCounts.recordBooked(doctorId, times);
+            });
+            for (LocalDateTime time : times) {
+                slotIndex.book(doctorId, time);
+                slotHolds.release(doctorId, time, patientId);
+            }
+            bookingEvents.changed(doctorId);
+        } catch (DataIntegrityViolationException error) {
+            return ResponseEntity.status(409).body(Map.of("booked", List.of(), "conflicts", List.of(Map.of("reason", "A slot was booked on another instance"))));
+        } finally {
+            lock.unlock();
+        }
+
+        final List<Map<String, Object>> booked = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            final Map<String, Object> occurrence = new LinkedHashMap<>();
+            occurrence.put("id", appointment.getId());
+            occurrence.put("appointmentTime", appointment.getAppointmentTime().toString());
+            booked.add(occurrence);
+        }
+        return ResponseEntity.status(201).body(Map.of("booked", booked, "conflicts", List.of()));
+    }
+
+    /**
+     * Holds a free slot for a patient for a few minutes so nobody else can book it meanwhile
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param principal Authenticated patient of the request
+     * @return Response with the expiry of the hold or an error message
+     */
+    public ResponseEntity<Map<String, String>> holdSlot(final Long doctorId, final LocalDateTime time, final AuthPrincipal principal) {
+        final Lock lock = bookingLocks.forDoctor(doctorId);
+        final Long expiresAt;
+        lock.lock();
+        try {
+            final Boolean available = slotIndex.isAvailable(doctorId, time, principal.getId());
+            if (available == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Doctor not found."));
+            }
+            expiresAt = available ? slotHolds.hold(doctorId, time, principal.getId()) : null;
+        } finally {
+            lock.unlock();
+        }
+
+        if (expiresAt == null) {
+            return ResponseEntity.status(409).body(Map.of("error", "Appointment slot not available."));
+        }
+        return ResponseEntity.ok(Map.of("message", "Slot held.", "expiresAt", Instant.ofEpochMilli(expiresAt).toString()));
+    }
+
+    /**
+     * Releases a patient's hold on a slot
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param principal Authenticated patient of the request
+     * @return Response message indicating success or failure
+     */
+    public ResponseEntity<Map<String, String>> releaseSlot(final Long doctorId, final LocalDateTime time, final AuthPrincipal principal) {
+        if (!slotHolds.release(doctorId, time, principal.getId())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No hold found for this slot."));
+        }
+        return ResponseEntity.ok(Map.of("message", "Slot released."));
+    }
+
+    /**
+     * Updates an existing appointment of the authenticated patient.
+     * A move to another slot is checked like a new booking, with the locks of both the previous and the new doctor held
+     * until the slot index reflects the move.
      * @param appointment Appointment to update
+     * @param principal Authenticated patient of the request
      * @return Response message indicating success or failure
      */
-    public ResponseEntity<Map<String, String>> updateAppointment(final Appointment appointment) {
+    public ResponseEntity<Map<String, String>> updateAppointment(final Appointment appointment, final AuthPrincipal principal) {
         if (appointment == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "No appointment specified."));
         }
@@ -49,8 +206,45 @@ public class AppointmentService {
             return ResponseEntity.badRequest().body(Map.of("error", "Appointment not found."));
         }
 
+        if (!appointmentToUpdate.get().getPatient().getId().equals(principal.getId())) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized. Cannot update appointment."));
+        }
+
         if (validateAppointment(appointment)) {
-            appointmentRepository.save(appointment);
+            final Appointment previous = appointmentToUpdate.get();
+            appointment.setPatient(previous.getPatient()); // An update cannot hand the appointment to another patient
+            final Long previousDoctorId = previous.getDoctor().getId();
+            final LocalDateTime previousTime = previous.getAppointmentTime();
+            final Long doctorId = appointment.getDoctor().getId();
+            final LocalDateTime time = appointment.getAppointmentTime();
+            final Long patientId = previous.getPatient().getId();
+            final boolean moved = !previousDoctorId.equals(doctorId) || !previousTime.equals(time);
+
+            final List<Lock> locks = bookingLocks.forDoctors(previousDoctorId, doctorId);
+            locks.forEach(Lock::lock);
+            try {
+                if (moved && !Boolean.TRUE.equals(slotIndex.isAvailable(doctorId, time, patientId))) {
+                    return ResponseEntity.status(409).body(Map.of("error", "Appointment slot not available."));
+                }
+                transactions.executeWithoutResult(status -> {
+                    appointmentRepository.saveAndFlush(appointment);
+                    monthlyCounts.recordCancelled(previousDoctorId, previousTime);
+                    monthlyCounts.recordBooked(doctorId, time);
+                });
+                if (moved) {
+                    slotIndex.cancel(previousDoctorId, previousTime);
+                    slotIndex.book(doctorId, time);
+                    slotHolds.release(doctorId, time, patientId);
+                    bookingEvents.changed(previousDoctorId);
+                    if (!previousDoctorId.equals(doctorId)) bookingEvents.changed(doctorId);
+                }
+            } catch (DataIntegrityViolationException error) {
+                return ResponseEntity.status(409).body(Map.of("error", "Appointment slot already taken."));
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+            }
         }
         return ResponseEntity.ok(Map.of("message", "Appointment updated successfully."));
     }
@@ -58,10 +252,10 @@ public class AppointmentService {
     /**
      * Cancels an existing appointment
      * @param id ID of appointment to cancel
-     * @param token Authorization token
+     * @param principal Authenticated patient of the request
      * @return Response message indicating success or failure
      */
-    public ResponseEntity<Map<String, String>> cancelAppointment(final Long id, final String token) {
+    public ResponseEntity<Map<String, String>> cancelAppointment(final Long id, final AuthPrincipal principal) {
         if (id == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "Appointment ID cannot be null."));
         }
@@ -72,37 +266,43 @@ public class AppointmentService {
             return ResponseEntity.badRequest().body(Map.of("error", "Appointment not found."));
         }
 
-        if (tokenService.validateToken(token) == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid token. Cannot cancel appointment."));
+        if (!appointment.get().getPatient().getId().equals(principal.getId())) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized. Cannot cancel appointment."));
         }
 
-        appointmentRepository.deleteById(id);
+        final Long doctorId = appointment.get().getDoctor().getId();
+        final LocalDateTime time = appointment.get().getAppointmentTime();
+        final Lock lock = bookingLocks.forDoctor(doctorId);
+        lock.lock();
+        try {
+            transactions.executeWithoutResult(status -> {
+                appointmentRepository.deleteById(id);
+                monthlyCounts.recordCancelled(doctorId, time);
+            });
+            slotIndex.cancel(doctorId, time);
+            bookingEvents.changed(doctorId);
+        } finally {
+            lock.unlock();
+        }
         return ResponseEntity.ok(Map.of("message", "Appointment cancelled successfully."));
     }
 
     /**
      * Retrieves a list of appointments for a specific doctor on a specific date.
-     * @param pname Patient name to filter by
+     * The patient name is matched in the query, and only the columns of the day view are selected.
+     * @param pname Patient name to filter by, or null or "null" for every patient
      * @param date Date for appointments
-     * @param token Authorization token
-     * @return Map containing the list of appointments
+     * @param principal Authenticated doctor of the request
+     * @return Map containing the list of appointments ordered by time
      */
-    public Map<String, Object> getAppointment(final String pname, final LocalDateTime date, final String token) {
-        if (tokenService.validateToken(token) == null) {
-            return Map.of("error", "Invalid token");
-        }
-        
+    public Map<String, Object> getAppointment(final String pname, final LocalDateTime date, final AuthPrincipal principal) {
         final LocalDateTime startOfDay = date.toLocalDate().atStartOfDay();
-        final LocalDateTime endOfDay = date.toLocalDate().atTime(23, 59, 59);
-        
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(null, startOfDay, endOfDay);
-        
-        if (pname != null && !pname.isEmpty()) {
-            appointments = appointments.stream()
-                .filter(apt -> apt.getPatient().getName().toLowerCase().contains(pname.toLowerCase()))
-                .toList();
-        }
-        
+        final LocalDateTime startOfNextDay = startOfDay.plusDays(1);
+
+        final List<AppointmentDTO> appointments = pname == null || pname.isBlank() || pname.equals("null")
+            ? appointmentRepository.findDayViewByDoctorId(principal.getId(), startOfDay, startOfNextDay)
+            : appointmentRepository.findDayViewByDoctorIdAndPatientName(principal.getId(), pname.trim(), startOfDay, startOfNextDay);
+
         return Map.of("appointments", appointments);
     }
 
@@ -0,0 +1,55 @@
+package com.project.back_end.services;
+
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.invalidation.InvalidationBus;
+import com.project.back_end.invalidation.InvalidationListener;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class BookingEvents implements InvalidationListener {
+    private static final String ENTITY = "doctor-bookings";
+
+    private final SlotIndex slotIndex;
+    private final BookingLocks bookingLocks;
+    private final InvalidationBus invalidationBus;
+
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(this);
+    }
+
+    /**
+     * Tells the other nodes that a doctor's bookings changed. Call only after the change has committed.
+     * @param doctorId ID of the doctor
+     */
+    public void changed(final Long doctorId) {
+        invalidationBus.publish(ENTITY, doctorId, false);
+    }
+
+    @Override
+    public String entity() {
+        return ENTITY;
+    }
+
+    @Override
+    public void onChange(final Long doctorId, final boolean deleted) {
+        final Lock lock = bookingLocks.forDoctor(doctorId);
+        lock.lock();
+        try {
+            slotIndex.invalidateBookings(doctorId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        slotIndex.invalidateAllBookings();
+    }
+}
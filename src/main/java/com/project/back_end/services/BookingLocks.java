@@ -0,0 +1,56 @@
+package com.project.back_end.services;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookingLocks {
+    private final Lock[] stripes;
+    private final int mask;
+
+    /**
+     * Constructor for BookingLocks
+     * @param stripes Number of locks, rounded up to a power of two
+     */
+    public BookingLocks(@Value("${booking.lock-stripes:256}") final int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gets the lock that guards bookings of a doctor
+     * @param doctorId ID of the doctor
+     * @return Lock of the doctor's stripe
+     */
+    public Lock forDoctor(final Long doctorId) {
+        return stripes[stripeOf(doctorId)];
+    }
+
+    /**
+     * Gets the locks that guard bookings of two doctors, such as when an appointment moves from one doctor to another.
+     * The locks are returned in stripe order, so callers that take them in list order cannot deadlock each other.
+     * @param first ID of one doctor
+     * @param second ID of the other doctor
+     * @return Locks of both doctors' stripes in stripe order, or a single lock if they share a stripe
+     */
+    public List<Lock> forDoctors(final Long first, final Long second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) return List.of(stripes[a]);
+        return a < b ? List.of(stripes[a], stripes[b]) : List.of(stripes[b], stripes[a]);
+    }
+
+    private int stripeOf(final Long doctorId) {
+        int hash = Long.hashCode(doctorId);
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+}
@@ -10,8 +10,8 @@ import com.project.back_end.models.Admin;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repositories.AdminRepository;
-import com.project.back_end.repositories.DoctorRepository;
 import com.project.back_end.repositories.PatientRepository;
+import com.project.back_end.security.AuthPrincipal;
 
 import lombok.RequiredArgsConstructor;
 
@@ -20,7 +20,6 @@ import lombok.RequiredArgsConstructor;
 public class ClinicService {
     private final TokenService tokenService;
     private final AdminRepository adminRepository;
-    private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final DoctorService doctorService;
     private final PatientService patientService;
@@ -35,6 +34,18 @@ public class ClinicService {
         return tokenService.validateToken(token, user);
     }
 
+    /**
+     * Revokes a token, logging its holder out
+     * @param token Token to be revoked
+     * @return Success message or an error message if the token is already invalid
+     */
+    public ResponseEntity<Map<String, String>> revokeToken(final String token) {
+        if (!tokenService.revokeToken(token)) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Token revoked"));
+    }
+
     /**
      * Validates the login credentials of an admin
      * @param receivedAdmin Admin credentials (username and password) to be validated
@@ -45,7 +56,7 @@ public class ClinicService {
         if (admin == null || !admin.getPassword().equals(receivedAdmin.getPassword())) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
         }
-        String token = tokenService.generateToken(admin.getUsername());
+        String token = tokenService.generateToken(admin.getUsername(), "admin", admin.getId());
         return ResponseEntity.ok(Map.of("token", token));
     }
 
@@ -77,21 +88,15 @@ public class ClinicService {
     /**
      * Validates whether an appointment is available based on the doctor's schedule
      * @param appointment Appointment to validate
+     * @param patientId ID of the patient booking; slots held by other patients are unavailable
      * @return 1 if the appointment time is valid, 0 if unavailable, and -1 if the doctor doesn't exist
      */
-    public int validateAppointment(final Appointment appointment) {
-        if (!doctorRepository.existsById(appointment.getDoctor().getId())) {
+    public int validateAppointment(final Appointment appointment, final Long patientId) {
+        Boolean available = doctorService.isSlotAvailable(appointment.getDoctor().getId(), appointment.getAppointmentTime(), patientId);
+        if (available == null) {
             return -1; // Doctor doesn't exist
         }
-        
-        java.util.List<String> availableSlots = doctorService.getDoctorAvailability(
-            appointment.getDoctor().getId(), 
-            appointment.getAppointmentTime().toLocalDate()
-        );
-        
-        String appointmentTime = appointment.getAppointmentTime().toLocalTime().toString();
-        return availableSlots.stream()
-            .anyMatch(slot -> slot.startsWith(appointmentTime)) ? 1 : 0;
+        return available ? 1 : 0;
     }
 
     /**
@@ -100,8 +105,7 @@ public class ClinicService {
      * @return True if the patient does not exist and false if it exists already
      */
     public boolean validatePatient(final Patient patient) {
-        Patient existingPatient = patientRepository.findByEmailOrPhone(patient.getEmail(), patient.getPhone());
-        return existingPatient == null; // True if patient doesn't exist
+        return !patientRepository.isEmailOrPhoneTaken(patient.getEmail(), patient.getPhone());
     }
 
     /**
@@ -114,7 +118,7 @@ public class ClinicService {
         if (patient == null || !patient.getPassword().equals(login.getPassword())) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
         }
-        String token = tokenService.generateToken(patient.getEmail());
+        String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
         return ResponseEntity.ok(Map.of("token", token));
     }
     
@@ -122,28 +126,20 @@ public class ClinicService {
      * Filters patient appointments based on certain criteria, like condition and doctor name
      * @param condition Medical condition to filter appointments by
      * @param name Doctor's name to filter appointments by
-     * @param token Authentication token to identify the patient
+     * @param principal Authenticated patient of the request
      * @return Filtered list of patient appointments based on the criteria
      */
-    public ResponseEntity<Map<String, Object>> filterPatient(final String condition, final String name, final String token) {
-        String email = tokenService.validateToken(token);
-        if (email == null) {
-            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
-        }
-        
-        Patient patient = patientRepository.findByEmail(email);
-        if (patient == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Patient not found"));
-        }
+    public ResponseEntity<Map<String, Object>> filterPatient(final String condition, final String name, final AuthPrincipal principal) {
+        final Long patientId = principal.getId();
         
         if (condition != null && name != null) {
-            return patientService.filterByDoctorAndCondition(condition, name, patient.getId());
+            return patientService.filterByDoctorAndCondition(condition, name, patientId);
         } else if (condition != null) {
-            return patientService.filterByCondition(condition, patient.getId());
+            return patientService.filterByCondition(condition, patientId);
         } else if (name != null) {
-            return patientService.filterByDoctor(name, patient.getId());
+            return patientService.filterByDoctor(name, patientId);
         } else {
-            return patientService.getPatientAppointment(patient.getId(), token);
+            return patientService.getPatientAppointment(patientId, principal);
         }
     }
 }
@@ -0,0 +1,20 @@
+package com.project.back_end.services;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class DirectoryVersion {
+    private final DoctorDirectory doctorDirectory;
+
+    /**
+     * Get the strong ETag of the current directory snapshot
+     * @return Quoted ETag value, or null until the directory is first loaded
+     */
+    public String eTag() {
+        final DoctorDirectory.Snapshot snapshot = doctorDirectory.current();
+        return snapshot == null ? null : "\"" + snapshot.contentHash() + "\"";
+    }
+}
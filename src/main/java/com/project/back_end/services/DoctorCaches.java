@@ -0,0 +1,84 @@
+package com.project.back_end.services;
+
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.invalidation.InvalidationBus;
+import com.project.back_end.invalidation.InvalidationListener;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repositories.DoctorRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class DoctorCaches implements InvalidationListener {
+    private static final String ENTITY = "doctor";
+
+    private final DoctorRepository doctorRepository;
+    private final SlotIndex slotIndex;
+    private final DoctorSearchIndex searchIndex;
+    private final DoctorDirectory doctorDirectory;
+    private final TokenService tokenService;
+    private final InvalidationBus invalidationBus;
+
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(this);
+    }
+
+    /**
+     * Applies a committed save or update of a doctor on this node and tells the other nodes
+     * @param doctor Saved doctor with its schedule
+     */
+    public void saved(final Doctor doctor) {
+        apply(doctor);
+        invalidationBus.publish(ENTITY, doctor.getId(), false);
+    }
+
+    /**
+     * Applies a committed delete of a doctor on this node and tells the other nodes
+     * @param doctorId ID of the deleted doctor
+     */
+    public void deleted(final Long doctorId) {
+        remove(doctorId);
+        invalidationBus.publish(ENTITY, doctorId, true);
+    }
+
+    @Override
+    public String entity() {
+        return ENTITY;
+    }
+
+    @Override
+    public void onChange(final Long id, final boolean deleted) {
+        final Doctor doctor = deleted ? null : doctorRepository.findWithScheduleById(id);
+        if (doctor == null) {
+            remove(id);
+        } else {
+            apply(doctor);
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        slotIndex.rebuild();
+        searchIndex.rebuild();
+        doctorDirectory.rebuild();
+        tokenService.evictAll();
+    }
+
+    private void apply(final Doctor doctor) {
+        slotIndex.refreshDoctor(doctor);
+        searchIndex.index(doctor);
+        doctorDirectory.put(DoctorSummary.of(doctor));
+    }
+
+    private void remove(final Long doctorId) {
+        slotIndex.removeDoctor(doctorId);
+        searchIndex.remove(doctorId);
+        doctorDirectory.remove(doctorId);
+        tokenService.evictPrincipal("doctor", doctorId);
+    }
+}
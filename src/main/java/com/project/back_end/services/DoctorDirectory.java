@@ -0,0 +1,261 @@
+package com.project.back_end.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.DoctorRepository;
+
+@Component
+public class DoctorDirectory {
+    private static final Logger log = LoggerFactory.getLogger(DoctorDirectory.class);
+
+    private final DoctorRepository doctorRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong lastRebuildMicros = new AtomicLong();
+    private final AtomicLong maxRebuildMicros = new AtomicLong();
+
+    public DoctorDirectory(final DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    /**
+     * Get the current snapshot
+     * @return snapshot, or null until the directory is first loaded
+     */
+    public Snapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Loads every doctor with its schedule and publishes them as a new snapshot
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        final long startedAt = System.nanoTime();
+        final List<DoctorSummary> doctors = doctorRepository.findAllWithSchedule().stream().map(DoctorSummary::of).toList();
+        publish(new Snapshot(doctors), startedAt);
+        log.info("Doctor directory loaded with {} doctors in {} ms", doctors.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Publishes a snapshot in which a doctor is added or replaced
+     * @param doctor Saved doctor
+     */
+    public synchronized void put(final DoctorSummary doctor) {
+        final long startedAt = System.nanoTime();
+        final Snapshot previous = snapshot.get();
+        if (previous == null) return; // The first load reads the committed doctor
+
+        final List<DoctorSummary> doctors = new ArrayList<>(previous.byId.size() + 1);
+        for (DoctorSummary existing : previous.byId) {
+            if (!existing.id().equals(doctor.id())) {
+                doctors.add(existing);
+            }
+        }
+        doctors.add(doctor);
+        publish(new Snapshot(doctors), startedAt);
+    }
+
+    /**
+     * Publishes a snapshot without a deleted doctor
+     * @param doctorId ID of the doctor
+     */
+    public synchronized void remove(final Long doctorId) {
+        final long startedAt = System.nanoTime();
+        final Snapshot previous = snapshot.get();
+        if (previous == null || previous.get(doctorId) == null) return;
+
+        publish(new Snapshot(previous.byId.stream().filter(doctor -> !doctor.id().equals(doctorId)).toList()), startedAt);
+    }
+
+    /**
+     * Get snapshot statistics
+     * @return Map with the snapshot size, rebuild count, and rebuild times
+     */
+    public Map<String, Long> getStats() {
+        final Snapshot current = snapshot.get();
+        return Map.of(
+            "size", current == null ? 0L : current.size(),
+            "rebuilds", rebuilds.get(),
+            "lastRebuildMicros", lastRebuildMicros.get(),
+            "maxRebuildMicros", maxRebuildMicros.get(),
+            "publishedAtMillis", current == null ? 0L : current.publishedAtMillis
+        );
+    }
+
+    private void publish(final Snapshot next, final long startedAt) {
+        snapshot.set(next);
+        final long micros = (System.nanoTime() - startedAt) / 1_000;
+        rebuilds.incrementAndGet();
+        lastRebuildMicros.set(micros);
+        maxRebuildMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Immutable view of every doctor, sorted by ID and by name, and grouped by specialty
+     */
+    public static final class Snapshot {
+        private static final Comparator<DoctorSummary> BY_ID = Comparator.comparing(DoctorSummary::id);
+        private static final Comparator<DoctorSummary> BY_NAME = Comparator.comparing((DoctorSummary doctor) -> Doctor.nameKey(doctor.name()), Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(DoctorSummary::id);
+
+        private final List<DoctorSummary> byId;
+        private final List<DoctorSummary> byName;
+        private final Map<Long, DoctorSummary> index;
+        private final Map<String, List<DoctorSummary>> bySpecialty;
+        private final String contentHash;
+        private final long publishedAtMillis = System.currentTimeMillis();
+
+        private Snapshot(final List<DoctorSummary> doctors) {
+            final List<DoctorSummary> sortedById = new ArrayList<>(doctors);
+            sortedById.sort(BY_ID);
+            final List<DoctorSummary> sortedByName = new ArrayList<>(doctors);
+            sortedByName.sort(BY_NAME);
+
+            final Map<Long, DoctorSummary> ids = new HashMap<>(doctors.size() * 2);
+            final Map<String, List<DoctorSummary>> specialties = new HashMap<>();
+            for (DoctorSummary doctor : sortedById) {
+                ids.put(doctor.id(), doctor);
+                specialties.computeIfAbsent(specialtyKey(doctor.specialty()), key -> new ArrayList<>()).add(doctor);
+            }
+            specialties.replaceAll((key, list) -> List.copyOf(list));
+
+            this.byId = List.copyOf(sortedById);
+            this.byName = List.copyOf(sortedByName);
+            this.index = Map.copyOf(ids);
+            this.bySpecialty = Map.copyOf(specialties);
+            this.contentHash = hash(this.byId);
+        }
+
+        /**
+         * Get the hash of the snapshot's contents, equal on every node that holds the same doctors
+         * @return Hex digest of every listed field of every doctor, in ID order
+         */
+        public String contentHash() {
+            return contentHash;
+        }
+
+        /**
+         * Get a doctor by ID
+         * @param doctorId ID of the doctor
+         * @return The doctor, or null if not found
+         */
+        public DoctorSummary get(final Long doctorId) {
+            return index.get(doctorId);
+        }
+
+        /**
+         * Get every doctor
+         * @return Doctors sorted by ID
+         */
+        public List<DoctorSummary> all() {
+            return byId;
+        }
+
+        /**
+         * Get the doctors of a specialty
+         * @param specialty Specialty ignoring case
+         * @return Doctors sorted by ID
+         */
+        public List<DoctorSummary> bySpecialty(final String specialty) {
+            return bySpecialty.getOrDefault(specialtyKey(specialty), List.of());
+        }
+
+        /**
+         * Get the doctors that follow an ID in ID order
+         * @param afterId ID of the last doctor already returned, or null to start from the beginning
+         * @param count Maximum number of doctors to return
+         * @return Doctors in ID order
+         */
+        public List<DoctorSummary> pageById(final Long afterId, final int count) {
+            final int from = afterId == null ? 0 : firstAfter(byId, new DoctorSummary(afterId, null, null, null, null, List.of(), 0, 0, null), BY_ID);
+            return byId.subList(from, Math.min(byId.size(), from + count));
+        }
+
+        /**
+         * Get the doctors that follow a name and ID in name order, which is the order of the name key in the database
+         * @param afterName Name of the last doctor already returned, or null to start from the beginning
+         * @param afterId ID of the last doctor already returned
+         * @param count Maximum number of doctors to return
+         * @return Doctors in name order
+         */
+        public List<DoctorSummary> pageByName(final String afterName, final Long afterId, final int count) {
+            final int from = afterName == null ? 0 : firstAfter(byName, new DoctorSummary(afterId, afterName, null, null, null, List.of(), 0, 0, null), BY_NAME);
+            return byName.subList(from, Math.min(byName.size(), from + count));
+        }
+
+        /**
+         * Get Size
+         * @return Number of doctors
+         */
+        public long size() {
+            return byId.size();
+        }
+
+        /**
+         * Finds the index of the first element after a key in a sorted list
+         * @param sorted Sorted list
+         * @param key Key to look for, which need not be in the list
+         * @param order Order of the list
+         * @return Index of the first element greater than the key
+         */
+        private static int firstAfter(final List<DoctorSummary> sorted, final DoctorSummary key, final Comparator<DoctorSummary> order) {
+            final int found = Collections.binarySearch(sorted, key, order);
+            return found >= 0 ? found + 1 : -found - 1;
+        }
+
+        private static String specialtyKey(final String specialty) {
+            return specialty == null ? "" : specialty.toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Hashes every field a listing shows, so two snapshots hash alike exactly when their listings are alike
+         * @param doctors Doctors sorted by ID
+         * @return First 128 bits of the SHA-256 digest, as hex
+         */
+        private static String hash(final List<DoctorSummary> doctors) {
+            final MessageDigest sha256;
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+            final StringBuilder fields = new StringBuilder();
+            for (DoctorSummary doctor : doctors) {
+                fields.setLength(0);
+                for (Object field : new Object[] { doctor.id(), doctor.name(), doctor.specialty(), doctor.email(), doctor.phone(),
+                        doctor.slotMinutes(), doctor.yearsOfExperience(), doctor.clinicAddress() }) {
+                    fields.append(field == null ? "\u0000" : field.toString()).append('\u001f'); // Unit separator, so adjacent fields cannot run together
+                }
+                for (ScheduleWindow window : doctor.schedule()) {
+                    fields.append(window.getDayOfWeek()).append(' ').append(window.getStartMinute()).append(' ').append(window.getEndMinute()).append('\u001f');
+                }
+                fields.append('\u001e'); // Record separator
+                sha256.update(fields.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(Arrays.copyOf(sha256.digest(), 16));
+        }
+    }
+}
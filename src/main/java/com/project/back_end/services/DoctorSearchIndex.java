@@ -0,0 +1,220 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repositories.DoctorRepository;
+
+@Component
+public class DoctorSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(DoctorSearchIndex.class);
+
+    private final DoctorRepository doctorRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+    private Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[0];
+    private String[] names = new String[0];
+    private String[] specialties = new String[0];
+    private int size;
+    private BitSet live = new BitSet();
+    private BitSet morning = new BitSet();
+    private BitSet afternoon = new BitSet();
+    private Map<Long, BitSet> byTrigram = new HashMap<>();
+    private Map<String, BitSet> bySpecialty = new HashMap<>();
+
+    public DoctorSearchIndex(final DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    /**
+     * Finds the doctors matching every given filter
+     * @param name Case-insensitive substring of the doctor's name, or null
+     * @param specialty Specialty of the doctor ignoring case, or null
+     * @param amOrPm Time of day the doctor must have a slot in (AM/PM), or null
+     * @return IDs of the matching doctors in index order, or null if the index is not built yet
+     */
+    public List<Long> search(final String name, final String specialty, final String amOrPm) {
+        if (!ready) return null;
+
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) live.clone();
+            if (specialty != null) {
+                BitSet postings = bySpecialty.get(normalize(specialty));
+                if (postings == null) return List.of();
+                result.and(postings);
+            }
+            if (amOrPm != null) {
+                result.and(amOrPm.equalsIgnoreCase("AM") ? morning : afternoon);
+            }
+            if (name != null && !name.isEmpty()) {
+                String query = normalize(name);
+                for (int i = 0; i + 3 <= query.length() && !result.isEmpty(); i++) {
+                    BitSet postings = byTrigram.get(trigram(query, i));
+                    if (postings == null) return List.of();
+                    result.and(postings);
+                }
+                for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                    if (!names[ordinal].contains(query)) {
+                        result.clear(ordinal);
+                    }
+                }
+            }
+
+            List<Long> matches = new ArrayList<>(result.cardinality());
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                matches.add(ids[ordinal]);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a saved doctor to the index or replaces its previous entry
+     * @param doctor Saved doctor with its schedule
+     */
+    public void index(final Doctor doctor) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(doctor.getId());
+            if (ordinal != null) {
+                unlink(ordinal);
+            } else {
+                ordinal = size++;
+                if (ordinal == ids.length) {
+                    int capacity = Math.max(16, ids.length * 2);
+                    ids = Arrays.copyOf(ids, capacity);
+                    names = Arrays.copyOf(names, capacity);
+                    specialties = Arrays.copyOf(specialties, capacity);
+                }
+                ordinals.put(doctor.getId(), ordinal);
+            }
+            link(ordinal, doctor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted doctor from the index
+     * @param doctorId ID of the doctor
+     */
+    public void remove(final Long doctorId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(doctorId);
+            if (ordinal != null) {
+                unlink(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from every doctor in the database. Writes wait until the rebuild is done so none is lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            List<Doctor> doctors = doctorRepository.findAll(); // AM/PM comes from the slot periods column, so schedules are not needed
+            ordinals = new HashMap<>(doctors.size() * 2);
+            ids = new long[Math.max(16, doctors.size())];
+            names = new String[ids.length];
+            specialties = new String[ids.length];
+            size = 0;
+            live = new BitSet(doctors.size());
+            morning = new BitSet(doctors.size());
+            afternoon = new BitSet(doctors.size());
+            byTrigram = new HashMap<>();
+            bySpecialty = new HashMap<>();
+            for (Doctor doctor : doctors) {
+                int ordinal = size++;
+                ordinals.put(doctor.getId(), ordinal);
+                link(ordinal, doctor);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Doctor search index rebuilt for {} doctors in {} ms", size, System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Sets the bits of a doctor in every posting list. Must be called while holding the write lock.
+     * @param ordinal Ordinal of the doctor
+     * @param doctor Doctor to index
+     */
+    private void link(final int ordinal, final Doctor doctor) {
+        String name = normalize(doctor.getName());
+        String specialty = normalize(doctor.getSpecialty());
+        ids[ordinal] = doctor.getId();
+        names[ordinal] = name;
+        specialties[ordinal] = specialty;
+
+        live.set(ordinal);
+        morning.set(ordinal, (doctor.getSlotPeriods() & Doctor.MORNING) != 0);
+        afternoon.set(ordinal, (doctor.getSlotPeriods() & Doctor.AFTERNOON) != 0);
+        bySpecialty.computeIfAbsent(specialty, key -> new BitSet()).set(ordinal);
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            byTrigram.computeIfAbsent(trigram(name, i), key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    /**
+     * Clears the bits of a doctor from every posting list, dropping lists that become empty.
+     * Must be called while holding the write lock.
+     * @param ordinal Ordinal of the doctor
+     */
+    private void unlink(final int ordinal) {
+        live.clear(ordinal);
+        morning.clear(ordinal);
+        afternoon.clear(ordinal);
+
+        BitSet specialty = bySpecialty.get(specialties[ordinal]);
+        specialty.clear(ordinal);
+        if (specialty.isEmpty()) bySpecialty.remove(specialties[ordinal]);
+
+        String name = names[ordinal];
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            BitSet postings = byTrigram.get(trigram(name, i));
+            if (postings == null) continue; // Repeated trigram already dropped
+            postings.clear(ordinal);
+            if (postings.isEmpty()) byTrigram.remove(trigram(name, i));
+        }
+    }
+
+    private static String normalize(final String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Packs the three characters starting at an offset into one key
+     * @param value Lower-case text
+     * @param offset Offset of the first character
+     * @return Trigram key
+     */
+    private static long trigram(final String value, final int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+}
@@ -1,45 +1,105 @@
 package com.project.back_end.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import com.project.back_end.DTO.DoctorSummary;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
 import com.project.back_end.repositories.AppointmentRepository;
 import com.project.back_end.repositories.DoctorRepository;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class DoctorService {
+    private static final int STREAM_BATCH_SIZE = 500; // Same as the fetch size of the doctor cursor
+
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
+    private final TokenService tokenService;
+    private final SlotIndex slotIndex;
+    private final DoctorSearchIndex searchIndex;
+    private final DoctorDirectory doctorDirectory;
+    private final DoctorCaches doctorCaches;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final MonthlyPatientCounts monthlyCounts;
+    private final TransactionTemplate transactions;
 
     /**
      * Fetches the available slots for a specific doctor on a given date
      * @param doctorId ID of the doctor
      * @param date Date for which the availability is needed
+     * @param viewerId ID of the patient asking, whose held slots are still listed, or null
      * @return List of available slots for the doctor on the specified date
      */
-    public List<String> getDoctorAvailability(final Long doctorId, final LocalDate date) {
-        Doctor doctor = doctorRepository.findById(doctorId).orElse(null);
-        if (doctor == null) return List.of();
-        
-        List<String> availableSlots = doctor.getAvailableTimes();
-        List<String> bookedSlots = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
-            doctorId, date.atStartOfDay(), date.atTime(23, 59, 59))
-            .stream()
-            .map(apt -> apt.getAppointmentTime().toLocalTime().toString())
-            .toList();
-            
-        return availableSlots.stream()
-            .filter(slot -> !bookedSlots.contains(slot.split(" - ")[0]))
-            .toList();
+    public List<String> getDoctorAvailability(final Long doctorId, final LocalDate date, final Long viewerId) {
+        List<String> availableSlots = slotIndex.getAvailability(doctorId, date, viewerId);
+        return availableSlots == null ? List.of() : availableSlots;
+    }
+
+    /**
+     * Fetches the available slots for a specific doctor for every day of a date range
+     * @param doctorId ID of the doctor
+     * @param from First date of the range
+     * @param to Last date of the range (inclusive)
+     * @param viewerId ID of the patient asking, whose held slots are still listed, or null
+     * @return Available slots grouped by date, or an empty map if the doctor doesn't exist
+     */
+    public Map<LocalDate, List<String>> getDoctorAvailability(final Long doctorId, final LocalDate from, final LocalDate to, final Long viewerId) {
+        Map<LocalDate, List<String>> availableSlots = slotIndex.getAvailability(doctorId, from, to, viewerId);
+        return availableSlots == null ? Map.of() : availableSlots;
+    }
+
+    /**
+     * Fetches the available slots of many doctors on a given date in one round trip
+     * @param doctorIds IDs of the doctors
+     * @param date Date for which the availability is needed
+     * @param viewerId ID of the patient asking, whose held slots are still listed, or null
+     * @return Available slots by doctor ID; doctors that don't exist are left out
+     */
+    public Map<Long, List<String>> getDoctorsAvailability(final List<Long> doctorIds, final LocalDate date, final Long viewerId) {
+        return slotIndex.getAvailability(doctorIds, date, viewerId);
+    }
+
+    /**
+     * Checks whether an appointment time is a free slot of a doctor
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param viewerId ID of the patient asking, whose own hold counts as free, or null
+     * @return True if the slot is free, false if not, and null if the doctor doesn't exist
+     */
+    public Boolean isSlotAvailable(final Long doctorId, final LocalDateTime time, final Long viewerId) {
+        return slotIndex.isAvailable(doctorId, time, viewerId);
     }
 
     /**
@@ -52,7 +112,7 @@ public class DoctorService {
             if (doctorRepository.findByEmail(doctor.getEmail()) != null) {
                 return -1; // Doctor already exists
             }
-            doctorRepository.save(doctor);
+            publishDoctor(doctorRepository.save(doctor));
             return 1;
         } catch (Exception e) {
             return 0;
@@ -69,7 +129,7 @@ public class DoctorService {
             if (!doctorRepository.existsById(doctor.getId())) {
                 return -1; // Doctor not found
             }
-            doctorRepository.save(doctor);
+            publishDoctor(doctorRepository.save(doctor));
             return 1;
         } catch (Exception e) {
             return 0;
@@ -77,11 +137,94 @@ public class DoctorService {
     }
 
     /**
-     * Retrieves a list of all doctors
+     * Retrieves a list of all doctors with their schedules in one query
      * @return List of all doctors
      */
-    public List<Doctor> getDoctors() {
-        return doctorRepository.findAll();
+    public List<DoctorSummary> getDoctors() {
+        final DoctorDirectory.Snapshot directory = doctorDirectory.current();
+        return directory != null ? directory.all() : summarize(doctorRepository.findAllWithSchedule());
+    }
+
+    /**
+     * Retrieves one page of doctors using keyset pagination, so every page costs the same whatever its position
+     * @param sort Sort order: "id" or "name"
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Maximum number of doctors in the page
+     * @return Response with the doctors and, if there are more, the cursor of the next page; or an error message
+     */
+    public ResponseEntity<Map<String, Object>> getDoctorPage(final String sort, final String cursor, final int limit) {
+        final boolean byName;
+        if ("id".equalsIgnoreCase(sort)) {
+            byName = false;
+        } else if ("name".equalsIgnoreCase(sort)) {
+            byName = true;
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("error", "Sort must be id or name"));
+        }
+
+        Long afterId = null;
+        String afterName = null;
+        if (cursor != null) {
+            final String[] position = decodeCursor(cursor);
+            if (position == null || (byName && position.length != 2) || (!byName && position.length != 1)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+            }
+            afterId = Long.valueOf(position[0]);
+            afterName = byName ? position[1] : null;
+        }
+
+        final int count = limit + 1; // One extra doctor tells whether there is a next page
+        final DoctorDirectory.Snapshot directory = doctorDirectory.current();
+        List<DoctorSummary> doctors;
+        if (directory != null) {
+            doctors = byName ? directory.pageByName(afterName, afterId, count) : directory.pageById(afterId, count);
+        } else {
+            final Pageable page = PageRequest.ofSize(count);
+            final List<Doctor> entities;
+            if (cursor == null) {
+                entities = byName ? doctorRepository.findPageOrderByName(page) : doctorRepository.findPageOrderById(page);
+            } else {
+                entities = byName ? doctorRepository.findPageAfterNameOrderByName(Doctor.nameKey(afterName), afterId, page) : doctorRepository.findPageAfterIdOrderById(afterId, page);
+            }
+            doctors = summarizeWithSchedules(entities);
+        }
+
+        final Map<String, Object> response = new LinkedHashMap<>();
+        if (doctors.size() > limit) {
+            doctors = doctors.subList(0, limit);
+            final DoctorSummary last = doctors.get(limit - 1);
+            response.put("nextCursor", byName ? encodeCursor(last.id() + "\n" + last.name()) : encodeCursor(String.valueOf(last.id())));
+        }
+        response.put("doctors", doctors);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Writes every doctor as newline-delimited JSON while reading them from a database cursor.
+     * Schedules are fetched with one query per batch of doctors rather than joined into the cursor, so each doctor is read once,
+     * and each batch is detached once written, so memory use does not grow with the size of the directory.
+     * @param out Stream to write to
+     * @throws IOException If writing fails
+     */
+    @Transactional(readOnly = true)
+    public void streamDoctors(final OutputStream out) throws IOException {
+        try (Stream<Doctor> doctors = doctorRepository.streamAllOrderById();
+             SequenceWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).withRootValueSeparator("\n").writeValues(out)) {
+            final Iterator<Doctor> iterator = doctors.iterator();
+            final List<Doctor> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == STREAM_BATCH_SIZE || !iterator.hasNext()) {
+                    for (DoctorSummary doctor : summarizeWithSchedules(batch)) {
+                        writer.write(doctor);
+                    }
+                    batch.forEach(entityManager::detach);
+                    batch.clear();
+                }
+            }
+            writer.flush();
+            out.write('\n');
+        }
     }
 
     /**
@@ -94,8 +237,12 @@ public class DoctorService {
             if (!doctorRepository.existsById(id)) {
                 return -1; // Doctor not found
             }
-            appointmentRepository.deleteAllByDoctorId(id);
-            doctorRepository.deleteById(id);
+            transactions.executeWithoutResult(status -> {
+                appointmentRepository.deleteAllByDoctorId(id);
+                monthlyCounts.removeDoctor(id);
+                doctorRepository.deleteById(id);
+            });
+            afterCommit(() -> doctorCaches.deleted(id));
             return 1;
         } catch (Exception e) {
             return 0;
@@ -109,10 +256,10 @@ public class DoctorService {
      */
     public ResponseEntity<Map<String, String>> validateDoctor(final Login login) {
         final Doctor doctor = doctorRepository.findByEmail(login.getIdentifier());
-        if (doctor == null || !login.getPassword().equals(login.getPassword())) {
+        if (doctor == null || !doctor.getPassword().equals(login.getPassword())) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid credentials"));
         }
-        return ResponseEntity.ok(Map.of("token", "doctor_token_" + doctor.getId()));
+        return ResponseEntity.ok(Map.of("token", tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId())));
     }
 
     /**
@@ -121,7 +268,8 @@ public class DoctorService {
      * @return Map with the list of doctors matching the name
      */
     public Map<String, Object> findDoctorByName(final String name) {
-        List<Doctor> doctors = doctorRepository.findByNameLike(name);
+        List<Long> ids = searchIndex.search(name, null, null);
+        List<DoctorSummary> doctors = ids != null ? findSummaries(ids) : summarize(doctorRepository.findByNameLike(name));
         return Map.of("doctors", doctors);
     }
 
@@ -133,9 +281,9 @@ public class DoctorService {
      * @return Map with the filtered list of doctors
      */
     public Map<String, Object> filterDoctorsByNameSpecialtyandTime(final String name, final String specialty, final String amOrPm) {
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors, amOrPm);
-        return Map.of("doctors", filteredDoctors);
+        List<Long> ids = searchIndex.search(name, specialty, amOrPm);
+        List<DoctorSummary> doctors = ids != null ? findSummaries(ids) : summarize(withSlotIn(doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty), amOrPm));
+        return Map.of("doctors", doctors);
     }
 
     /**
@@ -145,9 +293,9 @@ public class DoctorService {
      * @return Map with the filtered list of doctors
      */
     public Map<String, Object> filterDoctorByNameAndTime(final String name, final String amOrPm) {
-        List<Doctor> doctors = doctorRepository.findByNameLike(name);
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors, amOrPm);
-        return Map.of("doctors", filteredDoctors);
+        List<Long> ids = searchIndex.search(name, null, amOrPm);
+        List<DoctorSummary> doctors = ids != null ? findSummaries(ids) : summarize(withSlotIn(doctorRepository.findByNameLike(name), amOrPm));
+        return Map.of("doctors", doctors);
     }
 
     /**
@@ -157,7 +305,8 @@ public class DoctorService {
      * @return Map with filtered list of doctors
      */
     public Map<String, Object> filtersDoctorByNameAndSpecialty(final String name, final String specialty) {
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
+        List<Long> ids = searchIndex.search(name, specialty, null);
+        List<DoctorSummary> doctors = ids != null ? findSummaries(ids) : summarize(doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty));
         return Map.of("doctors", doctors);
     }
 
@@ -167,7 +316,8 @@ public class DoctorService {
      * @return Map with filtered list of doctors
      */
     public Map<String, Object> filterDoctorBySpecialty(final String specialty) {
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
+        final DoctorDirectory.Snapshot directory = doctorDirectory.current();
+        List<DoctorSummary> doctors = directory != null ? directory.bySpecialty(specialty) : summarize(doctorRepository.findBySpecialtyIgnoreCase(specialty));
         return Map.of("doctors", doctors);
     }
 
@@ -177,25 +327,113 @@ public class DoctorService {
      * @return Map with filtered list of doctors
      */
     public Map<String, Object> filterDoctorsByTime(final String amOrPm) {
-        List<Doctor> allDoctors = doctorRepository.findAll();
-        List<Doctor> filteredDoctors = filterDoctorByTime(allDoctors, amOrPm);
-        return Map.of("doctors", filteredDoctors);
+        List<Long> ids = searchIndex.search(null, null, amOrPm);
+        List<DoctorSummary> doctors = ids != null ? findSummaries(ids) : summarize(withSlotIn(doctorRepository.findAllWithSchedule(), amOrPm));
+        return Map.of("doctors", doctors);
+    }
+
+    /**
+     * Converts doctors whose schedules were fetched with them into summaries
+     * @param doctors Doctors with their schedules
+     * @return Summaries in the same order
+     */
+    private static List<DoctorSummary> summarize(final List<Doctor> doctors) {
+        return doctors.stream().map(DoctorSummary::of).toList();
+    }
+
+    /**
+     * Converts doctors loaded without their schedules into summaries, fetching all schedules with one query
+     * @param doctors Doctors without their schedules
+     * @return Summaries in the same order
+     */
+    private List<DoctorSummary> summarizeWithSchedules(final List<Doctor> doctors) {
+        if (doctors.isEmpty()) return List.of();
+
+        final Map<Long, List<ScheduleWindow>> schedules = new HashMap<>();
+        for (Object[] row : doctorRepository.findSchedulesByDoctorIdIn(doctors.stream().map(Doctor::getId).toList())) {
+            schedules.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((ScheduleWindow) row[1]);
+        }
+        return doctors.stream().map(doctor -> DoctorSummary.of(doctor, schedules.get(doctor.getId()))).toList();
+    }
+
+    /**
+     * Looks up the doctors found by the search index in the directory snapshot, or loads them with one query before it is ready
+     * @param ids IDs of the doctors in the order to return them
+     * @return Doctors in the order of the IDs; doctors deleted meanwhile are left out
+     */
+    private List<DoctorSummary> findSummaries(final List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        final DoctorDirectory.Snapshot directory = doctorDirectory.current();
+        if (directory != null) {
+            return ids.stream().map(directory::get).filter(Objects::nonNull).toList();
+        }
+
+        final Map<Long, Doctor> doctors = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAllWithScheduleByIdIn(ids)) {
+            doctors.put(doctor.getId(), doctor);
+        }
+        return ids.stream().map(doctors::get).filter(Objects::nonNull).map(DoctorSummary::of).toList();
+    }
+
+    /**
+     * Updates the in-memory caches of every node with a saved doctor once the write has committed
+     * @param saved Saved doctor with its schedule
+     */
+    private void publishDoctor(final Doctor saved) {
+        afterCommit(() -> doctorCaches.saved(saved));
+    }
+
+    /**
+     * Runs an action after the current transaction commits, or right away if there is none
+     * @param action Action to run
+     */
+    private static void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Encodes a page position as an opaque cursor
+     * @param position ID of the last doctor, followed by its name on a new line when sorting by name
+     * @return URL-safe cursor
+     */
+    private static String encodeCursor(final String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by encodeCursor
+     * @param cursor Cursor from the client
+     * @return ID of the last doctor, followed by its name if present; or null if the cursor is malformed
+     */
+    private static String[] decodeCursor(final String cursor) {
+        try {
+            final String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 2);
+            Long.parseLong(position[0]);
+            return position;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     /**
-     * Filters a list of doctors by their availability during AM/PM
+     * Filters a list of doctors by their availability during AM/PM, using the slot periods derived from their schedules.
+     * Only used while the search index is being built.
      * @param doctors List of doctors to filter
      * @param amOrPm Time of day: AM/PM
      * @return Filtered list of doctors
      */
-    public List<Doctor> filterDoctorByTime(final List<Doctor> doctors, final String amOrPm) {
-        return doctors.stream()
-            .filter(doctor -> doctor.getAvailableTimes().stream()
-                .anyMatch(time -> {
-                    String startTime = time.split(" - ")[0];
-                    int hour = Integer.parseInt(startTime.split(":")[0]);
-                    return amOrPm.equalsIgnoreCase("AM") ? hour < 12 : hour >= 12;
-                }))
-            .toList();
+    private static List<Doctor> withSlotIn(final List<Doctor> doctors, final String amOrPm) {
+        final int period = amOrPm.equalsIgnoreCase("AM") ? Doctor.MORNING : Doctor.AFTERNOON;
+        return doctors.stream().filter(doctor -> (doctor.getSlotPeriods() & period) != 0).toList();
     }
 }
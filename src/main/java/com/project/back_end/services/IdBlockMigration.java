@@ -0,0 +1,57 @@
+package com.project.back_end.services;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.IdBlocks;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdBlockMigration {
+    private static final Logger log = LoggerFactory.getLogger(IdBlockMigration.class);
+    private static final List<String> ENTITIES = List.of(IdBlocks.ADMIN, IdBlocks.APPOINTMENT, IdBlocks.DOCTOR, IdBlocks.PATIENT);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void run() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + IdBlocks.TABLE + " (" + IdBlocks.NAME_COLUMN + " VARCHAR(255) NOT NULL PRIMARY KEY, " + IdBlocks.VALUE_COLUMN + " BIGINT)");
+        for (String entity : ENTITIES) {
+            final Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + entity, Long.class);
+            if (maxId == null) continue; // Empty table: the generator starts at its initial value
+            seed(entity, maxId + 1 + IdBlocks.ALLOCATION_SIZE); // A full block of margin, whichever end of the block the stored value marks
+        }
+    }
+
+    /**
+     * Raises the next value of an entity to at least a floor
+     * @param entity Name of the entity's row
+     * @param floor Lowest acceptable next value
+     */
+    private void seed(final String entity, final long floor) {
+        final String update = "UPDATE " + IdBlocks.TABLE + " SET " + IdBlocks.VALUE_COLUMN + " = ? WHERE " + IdBlocks.NAME_COLUMN + " = ? AND " + IdBlocks.VALUE_COLUMN + " < ?";
+        if (jdbcTemplate.update(update, floor, entity, floor) > 0) {
+            log.info("Moved next {} ID to {}", entity, floor);
+            return;
+        }
+        final Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + IdBlocks.TABLE + " WHERE " + IdBlocks.NAME_COLUMN + " = ?", Integer.class, entity);
+        if (rows != null && rows > 0) return; // Already past the floor
+
+        try {
+            jdbcTemplate.update("INSERT INTO " + IdBlocks.TABLE + " (" + IdBlocks.NAME_COLUMN + ", " + IdBlocks.VALUE_COLUMN + ") VALUES (?, ?)", entity, floor);
+            log.info("Started {} IDs at {}", entity, floor);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(update, floor, entity, floor); // Another node inserted the row first
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.project.back_end.services;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorMonthlyCount;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorMonthlyCountRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class MonthlyPatientCounts {
+    private static final Logger log = LoggerFactory.getLogger(MonthlyPatientCounts.class);
+
+    private final DoctorMonthlyCountRepository countRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorDirectory doctorDirectory;
+    private final TransactionTemplate transactions;
+
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong rowsCorrected = new AtomicLong();
+    private final AtomicLong lastReconciledAtMillis = new AtomicLong();
+
+    /**
+     * Counts a booked appointment. Must be called in the transaction that inserts it.
+     * @param doctorId ID of the doctor
+     * @param time Appointment time
+     */
+    public void recordBooked(final Long doctorId, final LocalDateTime time) {
+        countRepository.add(doctorId, DoctorMonthlyCount.monthKey(time), 1);
+    }
+
+    /**
+     * Counts many booked appointments of one doctor with one update per month. Must be called in the transaction that inserts them.
+     * @param doctorId ID of the doctor
+     * @param times Appointment times
+     */
+    public void recordBooked(final Long doctorId, final Collection<LocalDateTime> times) {
+        final Map<Integer, Long> byMonth = new TreeMap<>();
+        for (LocalDateTime time : times) {
+            byMonth.merge(DoctorMonthlyCount.monthKey(time), 1L, Long::sum);
+        }
+        byMonth.forEach((monthKey, count) -> countRepository.add(doctorId, monthKey, count));
+    }
+
+    /**
+     * Uncounts a cancelled appointment. Must be called in the transaction that deletes it.
+     * A count that is already zero stays zero; the nightly reconciliation corrects any drift.
+     * @param doctorId ID of the doctor
+     * @param time Appointment time
+     */
+    public void recordCancelled(final Long doctorId, final LocalDateTime time) {
+        countRepository.subtract(doctorId, DoctorMonthlyCount.monthKey(time), 1);
+    }
+
+    /**
+     * Drops every count of a deleted doctor. Must be called in the transaction that deletes the doctor.
+     * @param doctorId ID of the doctor
+     */
+    public void removeDoctor(final Long doctorId) {
+        countRepository.deleteAllByDoctorId(doctorId);
+    }
+
+    /**
+     * Get the doctors with the most appointments in a month
+     * @param month Month
+     * @param limit Number of doctors to return
+     * @return Doctors with their ID, name, and number of appointments, most appointments first
+     */
+    public List<Map<String, Object>> topDoctors(final YearMonth month, final int limit) {
+        final List<DoctorMonthlyCount> counts = countRepository.findTopByMonthKey(DoctorMonthlyCount.monthKey(month), PageRequest.of(0, limit));
+
+        // Names come from the directory snapshot; doctors it does not have yet are looked up in one query
+        final DoctorDirectory.Snapshot directory = doctorDirectory.current();
+        final Map<Long, String> names = new HashMap<>();
+        final Set<Long> missing = new TreeSet<>();
+        for (DoctorMonthlyCount count : counts) {
+            final DoctorSummary doctor = directory == null ? null : directory.get(count.getDoctorId());
+            if (doctor != null) {
+                names.put(count.getDoctorId(), doctor.name());
+            } else {
+                missing.add(count.getDoctorId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Doctor doctor : doctorRepository.findAllById(missing)) {
+                names.put(doctor.getId(), doctor.getName());
+            }
+        }
+
+        final List<Map<String, Object>> top = new ArrayList<>(counts.size());
+        for (DoctorMonthlyCount count : counts) {
+            final Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("doctorId", count.getDoctorId());
+            entry.put("doctorName", names.get(count.getDoctorId()));
+            entry.put("patientsSeen", count.getPatientsSeen());
+            top.add(entry);
+        }
+        return top;
+    }
+
+    /**
+     * Recounts the previous and the current month every night
+     */
+    @Scheduled(cron = "${reports.reconcile-cron:0 30 3 * * *}")
+    public void reconcileRecentMonths() {
+        final YearMonth now = YearMonth.now();
+        reconcile(now.minusMonths(1));
+        reconcile(now);
+    }
+
+    /**
+     * Recounts a month from the appointment table and overwrites every count that drifted.
+     * A booking committed while the month is recounted can itself show up as drift; the next run settles it.
+     * @param month Month to recount
+     * @return Counts that were corrected, with the stored and the actual number of appointments
+     */
+    public List<Map<String, Object>> reconcile(final YearMonth month) {
+        final int monthKey = DoctorMonthlyCount.monthKey(month);
+        final List<Map<String, Object>> drift = transactions.execute(status -> {
+            final Map<Long, Long> actual = new HashMap<>();
+            for (Object[] row : appointmentRepository.countByDoctorIdBetween(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay())) {
+                actual.put((Long) row[0], (Long) row[1]);
+            }
+            final Map<Long, Long> stored = new HashMap<>();
+            for (DoctorMonthlyCount count : countRepository.findByMonthKey(monthKey)) {
+                stored.put(count.getDoctorId(), count.getPatientsSeen());
+            }
+
+            final List<Map<String, Object>> corrected = new ArrayList<>();
+            final TreeSet<Long> doctorIds = new TreeSet<>(actual.keySet());
+            doctorIds.addAll(stored.keySet());
+            for (Long doctorId : doctorIds) {
+                final long expected = actual.getOrDefault(doctorId, 0L);
+                final long found = stored.getOrDefault(doctorId, 0L);
+                if (expected != found) {
+                    countRepository.set(doctorId, monthKey, expected);
+                    corrected.add(Map.of("doctorId", doctorId, "stored", found, "actual", expected));
+                }
+            }
+            return corrected;
+        });
+
+        reconciliations.incrementAndGet();
+        rowsCorrected.addAndGet(drift.size());
+        lastReconciledAtMillis.set(System.currentTimeMillis());
+        if (!drift.isEmpty()) {
+            log.warn("Monthly patient counts for {} drifted for {} doctors: {}", month, drift.size(), drift);
+        }
+        return drift;
+    }
+
+    /**
+     * Get reconciliation statistics
+     * @return Map with the number of reconciliations, corrected rows, and the time of the last run
+     */
+    public Map<String, Long> getStats() {
+        return Map.of(
+            "reconciliations", reconciliations.get(),
+            "rowsCorrected", rowsCorrected.get(),
+            "lastReconciledAtMillis", lastReconciledAtMillis.get()
+        );
+    }
+}
@@ -1,24 +1,38 @@
 package com.project.back_end.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.project.back_end.models.Appointment;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.project.back_end.DTO.PatientAppointment;
+import com.project.back_end.invalidation.InvalidationBus;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repositories.AppointmentRepository;
 import com.project.back_end.repositories.PatientRepository;
+import com.project.back_end.security.AuthPrincipal;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class PatientService {
-    private final TokenService tokenService;
+    private static final int EXPORT_FLUSH_EVERY = 200; // Rows between flushes; the first row is flushed at once
+
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final InvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
 
     /**
      * Saves a new patient to the database
@@ -27,10 +41,10 @@ public class PatientService {
      */
     public int createPatient(final Patient patient) {
         try {
-            if (patientRepository.findByEmailOrPhone(patient.getEmail(), patient.getPhone()) != null) {
+            if (patientRepository.isEmailOrPhoneTaken(patient.getEmail(), patient.getPhone())) {
                 return 0; // Patient already exists
             }
-            patientRepository.save(patient);
+            invalidationBus.publish("patient", patientRepository.save(patient).getId(), false);
             return 1;
         } catch (Exception e) {
             return 0;
@@ -40,24 +54,43 @@ public class PatientService {
     /**
      * Retrieves a list of appointment for a specific patient
      * @param id Patient ID
-     * @param token JWT token containing the email
+     * @param principal Authenticated patient of the request
      * @return Reponse containing a list of appointments of an error message
      */
-    public ResponseEntity<Map<String, Object>> getPatientAppointment(final Long id, final String token) {
-        String email = tokenService.validateToken(token);
-        if (email == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
-        }
-        
-        Patient patient = patientRepository.findByEmail(email);
-        if (patient == null || !patient.getId().equals(id)) {
+    public ResponseEntity<Map<String, Object>> getPatientAppointment(final Long id, final AuthPrincipal principal) {
+        if (!principal.getId().equals(id)) {
             return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
         }
         
-        List<Appointment> appointments = appointmentRepository.findByPatientId(id);
+        List<PatientAppointment> appointments = appointmentRepository.findByPatientId(id);
         return ResponseEntity.ok(Map.of("appointments", appointments));
     }
 
+    /**
+     * Writes a patient's whole appointment history as newline-delimited JSON, oldest first.
+     * Rows are read through a cursor and written as they arrive, and the output is flushed regularly so the client gets data right away.
+     * @param patientId ID of the patient
+     * @param out Stream to write to, left open
+     * @throws IOException If writing fails
+     */
+    @Transactional(readOnly = true)
+    public void exportAppointments(final Long patientId, final OutputStream out) throws IOException {
+        try (Stream<PatientAppointment> appointments = appointmentRepository.streamByPatientId(patientId);
+             SequenceWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).withRootValueSeparator("\n").writeValues(out)) {
+            final Iterator<PatientAppointment> iterator = appointments.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++written % EXPORT_FLUSH_EVERY == 1) {
+                    writer.flush();
+                    out.flush();
+                }
+            }
+            writer.flush();
+            out.write('\n');
+        }
+    }
+
     /**
      * Filters appointments by condition for a specific patient
      * @param condition Condition to filter by ("past" or "future")
@@ -66,7 +99,7 @@ public class PatientService {
      */
     public ResponseEntity<Map<String, Object>> filterByCondition(final String condition, final Long id) {
         int status = condition.equalsIgnoreCase("past") ? 1 : 0;
-        List<Appointment> appointments = appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, status);
+        List<PatientAppointment> appointments = appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, status);
         return ResponseEntity.ok(Map.of("appointments", appointments));
     }
 
@@ -77,7 +110,7 @@ public class PatientService {
      * @return Filtered appointments or an error message
      */
     public ResponseEntity<Map<String, Object>> filterByDoctor(final String name, final Long patientId) {
-        List<Appointment> appointments = appointmentRepository.findByDoctorNameAndPatientId(name, patientId);
+        List<PatientAppointment> appointments = appointmentRepository.findByDoctorNameAndPatientId(name, patientId);
         return ResponseEntity.ok(Map.of("appointments", appointments));
     }
 
@@ -90,22 +123,17 @@ public class PatientService {
      */
     public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(final String condition, final String name, final Long patientId) {
         int status = condition.equalsIgnoreCase("past") ? 1 : 0;
-        List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientIdAndStatus(name, patientId, status);
+        List<PatientAppointment> appointments = appointmentRepository.filterByDoctorNameAndPatientIdAndStatus(name, patientId, status);
         return ResponseEntity.ok(Map.of("appointments", appointments));
     }
 
     /**
-     * Fetches the patient's details based on the provided JWT token
-     * @param token JWT token containing the email
+     * Fetches the patient's details of the authenticated patient
+     * @param principal Authenticated patient of the request
      * @return Patient's details or an error message
      */
-    public ResponseEntity<Map<String, Object>> getPatientDetails(final String token) {
-        String email = tokenService.validateToken(token);
-        if (email == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
-        }
-        
-        Patient patient = patientRepository.findByEmail(email);
+    public ResponseEntity<Map<String, Object>> getPatientDetails(final AuthPrincipal principal) {
+        Patient patient = principal.getPatient();
         if (patient == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "Patient not found"));
         }
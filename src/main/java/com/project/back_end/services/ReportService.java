@@ -0,0 +1,117 @@
+package com.project.back_end.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.project.back_end.DTO.DailyReportRow;
+import com.project.back_end.repositories.AppointmentRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class ReportService {
+    private static final String CSV_HEADER = "doctor_id,doctor_name,appointment_time,status,patient_name,patient_phone\n";
+
+    private final AppointmentRepository appointmentRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes every appointment of a day as CSV, one row per appointment, with each doctor's appointments together
+     * @param date Day of the report
+     * @param out Stream to write to, left open
+     * @throws IOException If writing fails
+     */
+    @Transactional(readOnly = true)
+    public void writeDailyReportCsv(final LocalDate date, final OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        try (Stream<DailyReportRow> rows = appointmentRepository.streamDailyReport(date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            final Iterator<DailyReportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                final DailyReportRow row = iterator.next();
+                writer.write(row.doctorId() + "," + csv(row.doctorName()) + "," + row.appointmentTime() + "," + row.status() + ","
+                    + csv(row.patientName()) + "," + csv(row.patientPhone()) + "\n");
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes every appointment of a day as newline-delimited JSON, one line per doctor with that doctor's appointments
+     * @param date Day of the report
+     * @param out Stream to write to, left open
+     * @throws IOException If writing fails
+     */
+    @Transactional(readOnly = true)
+    public void writeDailyReportNdjson(final LocalDate date, final OutputStream out) throws IOException {
+        try (Stream<DailyReportRow> rows = appointmentRepository.streamDailyReport(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+             SequenceWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).withRootValueSeparator("\n").writeValues(out)) {
+            final Iterator<DailyReportRow> iterator = rows.iterator();
+            DailyReportRow first = null;
+            final List<Map<String, Object>> appointments = new ArrayList<>(); // Only the current doctor's day is held
+            while (iterator.hasNext()) {
+                final DailyReportRow row = iterator.next();
+                if (first != null && !Objects.equals(first.doctorId(), row.doctorId())) {
+                    writer.write(doctorGroup(first, appointments));
+                    appointments.clear();
+                }
+                if (appointments.isEmpty()) {
+                    first = row;
+                }
+                appointments.add(appointment(row));
+            }
+            if (first != null) {
+                writer.write(doctorGroup(first, appointments));
+            }
+            writer.flush();
+            out.write('\n');
+        }
+    }
+
+    private static Map<String, Object> doctorGroup(final DailyReportRow doctor, final List<Map<String, Object>> appointments) {
+        final Map<String, Object> group = new LinkedHashMap<>();
+        group.put("doctorId", doctor.doctorId());
+        group.put("doctorName", doctor.doctorName());
+        group.put("appointments", appointments);
+        return group;
+    }
+
+    private static Map<String, Object> appointment(final DailyReportRow row) {
+        final Map<String, Object> appointment = new LinkedHashMap<>();
+        appointment.put("appointmentTime", row.appointmentTime());
+        appointment.put("status", row.status());
+        appointment.put("patientName", row.patientName());
+        appointment.put("patientPhone", row.patientPhone());
+        return appointment;
+    }
+
+    /**
+     * Quotes a CSV field when it contains a separator, a quote, or a line break
+     * @param value Field value
+     * @return Field as written to the CSV
+     */
+    private static String csv(final String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,116 @@
+package com.project.back_end.services;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repositories.DoctorRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ScheduleMigration implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ScheduleMigration.class);
+    private static final String LEGACY_TABLE = "doctor_available_times";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DoctorRepository doctorRepository;
+
+    @Override
+    @Transactional
+    public void run(final ApplicationArguments args) {
+        migrateAvailableTimes();
+        backfillSlotPeriods();
+        backfillSpecialtyKeys();
+        backfillNameKeys();
+    }
+
+    /**
+     * Converts the legacy available times of doctors without a schedule
+     */
+    private void migrateAvailableTimes() {
+        if (!legacyTableExists()) return;
+
+        Map<Long, List<String>> legacyTimes = new HashMap<>();
+        jdbcTemplate.query("SELECT doctor_id, available_times FROM " + LEGACY_TABLE, (ResultSet rs) -> {
+            legacyTimes.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2));
+        });
+        if (legacyTimes.isEmpty()) return;
+
+        int migrated = 0;
+        for (Doctor doctor : doctorRepository.findAllWithSchedule()) {
+            List<String> times = legacyTimes.get(doctor.getId());
+            if (times == null || !doctor.getSchedule().isEmpty()) continue;
+            try {
+                doctor.setAvailableTimes(times);
+                migrated++;
+            } catch (RuntimeException e) {
+                log.warn("Skipping schedule migration of doctor {}: unreadable available times {}", doctor.getId(), times);
+            }
+        }
+        log.info("Migrated available times of {} doctors to weekly schedules", migrated);
+    }
+
+    /**
+     * Derives the slot periods of doctors that have a schedule but no slot periods yet
+     */
+    private void backfillSlotPeriods() {
+        int updated = 0;
+        for (Doctor doctor : doctorRepository.findAllWithScheduleAndNoSlotPeriods()) {
+            doctor.updateSlotPeriods();
+            if (doctor.getSlotPeriods() != 0) updated++;
+        }
+        if (updated > 0) {
+            log.info("Derived slot periods of {} doctors", updated);
+        }
+    }
+
+    /**
+     * Derives the specialty key of doctors stored without one
+     */
+    private void backfillSpecialtyKeys() {
+        int updated = jdbcTemplate.update("UPDATE doctor SET specialty_key = LOWER(specialty) WHERE specialty_key IS NULL AND specialty IS NOT NULL");
+        if (updated > 0) {
+            log.info("Derived specialty keys of {} doctors", updated);
+        }
+    }
+
+    /**
+     * Derives the name key of doctors stored without one
+     */
+    private void backfillNameKeys() {
+        final List<Doctor> doctors = doctorRepository.findAllWithoutNameKey();
+        doctors.forEach(Doctor::updateNameKey); // Accents are stripped in Java, so this cannot be a single UPDATE
+        if (!doctors.isEmpty()) {
+            log.info("Derived name keys of {} doctors", doctors.size());
+        }
+    }
+
+    /**
+     * Checks whether the legacy table still exists
+     * @return True if the table exists
+     */
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            for (String name : new String[] { LEGACY_TABLE, LEGACY_TABLE.toUpperCase() }) {
+                try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, name, new String[] { "TABLE" })) {
+                    if (tables.next()) return true;
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -0,0 +1,119 @@
+package com.project.back_end.services;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class SlotHoldService {
+    private final long holdMillis;
+    private final TimingWheel wheel;
+    private final Map<Long, Map<LocalDateTime, Hold>> holds = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for SlotHoldService
+     * @param holdSeconds How long a hold lasts
+     */
+    public SlotHoldService(@Value("${booking.hold-seconds:300}") final long holdSeconds) {
+        this.holdMillis = holdSeconds * 1000;
+        this.wheel = new TimingWheel("slot-hold-wheel", 1000, 512);
+    }
+
+    /**
+     * Holds a slot for a patient, or extends the patient's existing hold
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param patientId ID of the patient
+     * @return Expiry of the hold in epoch millis, or null if another patient holds the slot
+     */
+    public Long hold(final Long doctorId, final LocalDateTime time, final Long patientId) {
+        final Hold hold = new Hold(patientId, System.currentTimeMillis() + holdMillis);
+        final Map<LocalDateTime, Hold> doctorHolds = holds.computeIfAbsent(doctorId, id -> new ConcurrentHashMap<>());
+        final Hold current = doctorHolds.compute(time, (key, existing) -> {
+            if (existing != null && existing.isActive() && !existing.patientId.equals(patientId)) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.timeout.cancel();
+            }
+            hold.timeout = wheel.schedule(() -> doctorHolds.remove(time, hold), holdMillis);
+            return hold;
+        });
+        return current == hold ? hold.expiresAtMillis : null;
+    }
+
+    /**
+     * Releases a patient's hold on a slot
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param patientId ID of the patient
+     * @return True if the patient held the slot
+     */
+    public boolean release(final Long doctorId, final LocalDateTime time, final Long patientId) {
+        final Map<LocalDateTime, Hold> doctorHolds = holds.get(doctorId);
+        if (doctorHolds == null) return false;
+
+        final Hold hold = doctorHolds.get(time);
+        if (hold == null || !hold.patientId.equals(patientId) || !doctorHolds.remove(time, hold)) {
+            return false;
+        }
+        hold.timeout.cancel();
+        return true;
+    }
+
+    /**
+     * Checks whether a slot is held by someone other than the viewer
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param viewerId ID of the patient asking, or null for anyone else
+     * @return True if another patient holds the slot
+     */
+    public boolean isHeldByOther(final Long doctorId, final LocalDateTime time, final Long viewerId) {
+        final Map<LocalDateTime, Hold> doctorHolds = holds.get(doctorId);
+        if (doctorHolds == null || doctorHolds.isEmpty()) return false;
+
+        final Hold hold = doctorHolds.get(time);
+        return hold != null && hold.isActive() && !hold.patientId.equals(viewerId);
+    }
+
+    /**
+     * Checks whether a doctor has any holds, so callers can skip per-slot lookups
+     * @param doctorId ID of the doctor
+     * @return True if at least one slot of the doctor is held
+     */
+    public boolean hasHolds(final Long doctorId) {
+        final Map<LocalDateTime, Hold> doctorHolds = holds.get(doctorId);
+        return doctorHolds != null && !doctorHolds.isEmpty();
+    }
+
+    /**
+     * Stops the timing wheel
+     */
+    @PreDestroy
+    public void close() {
+        wheel.close();
+    }
+
+    /**
+     * Hold of one slot by one patient. Expiry is also checked on read because the wheel only ticks once a second.
+     */
+    private static final class Hold {
+        private final Long patientId;
+        private final long expiresAtMillis;
+        private volatile TimingWheel.Timeout timeout;
+
+        private Hold(final Long patientId, final long expiresAtMillis) {
+            this.patientId = patientId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isActive() {
+            return System.currentTimeMillis() < expiresAtMillis;
+        }
+    }
+}
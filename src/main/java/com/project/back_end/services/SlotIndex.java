@@ -0,0 +1,498 @@
+package com.project.back_end.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+@Component
+public class SlotIndex {
+    private static final Logger log = LoggerFactory.getLogger(SlotIndex.class);
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final SlotHoldService slotHolds;
+    private final BookingLocks bookingLocks;
+    private final Map<Long, DoctorSlots> doctors = new ConcurrentHashMap<>();
+
+    @Value("${slots.preload-days:14}")
+    private int preloadDays;
+
+    public SlotIndex(final DoctorRepository doctorRepository, final AppointmentRepository appointmentRepository, final SlotHoldService slotHolds, final BookingLocks bookingLocks) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.slotHolds = slotHolds;
+        this.bookingLocks = bookingLocks;
+    }
+
+    /**
+     * Gets the free slots of a doctor on a given date
+     * @param doctorId ID of the doctor
+     * @param date Date for which the availability is needed
+     * @param viewerId ID of the patient asking, whose own holds count as free, or null
+     * @return List of free slots, or null if the doctor does not exist
+     */
+    public List<String> getAvailability(final Long doctorId, final LocalDate date, final Long viewerId) {
+        Map<LocalDate, List<String>> availability = getAvailability(doctorId, date, date, viewerId);
+        return availability == null ? null : availability.get(date);
+    }
+
+    /**
+     * Gets the free slots of a doctor for every day of a date range, loading missing days with a single query
+     * @param doctorId ID of the doctor
+     * @param from First date of the range
+     * @param to Last date of the range (inclusive)
+     * @param viewerId ID of the patient asking, whose own holds count as free, or null
+     * @return Free slots by date in ascending date order, or null if the doctor does not exist
+     */
+    public Map<LocalDate, List<String>> getAvailability(final Long doctorId, final LocalDate from, final LocalDate to, final Long viewerId) {
+        DoctorSlots slots = getDoctorSlots(doctorId);
+        if (slots == null) return null;
+
+        Map<LocalDate, BitSet> booked = getBooked(doctorId, slots, from, to);
+        Map<LocalDate, List<String>> availability = new LinkedHashMap<>();
+        synchronized (slots) {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                availability.put(date, freeSlots(doctorId, slots, date, booked.get(date), viewerId));
+            }
+        }
+        return availability;
+    }
+
+    /**
+     * Gets the free slots of many doctors on one date.
+     * Doctors and days that are not in the index yet are loaded with one doctor query and one appointment query in total.
+     * @param doctorIds IDs of the doctors
+     * @param date Date for which the availability is needed
+     * @param viewerId ID of the patient asking, whose own holds count as free, or null
+     * @return Free slots by doctor ID in the order requested; doctors that do not exist are left out
+     */
+    public Map<Long, List<String>> getAvailability(final Collection<Long> doctorIds, final LocalDate date, final Long viewerId) {
+        Map<Long, DoctorSlots> requested = new LinkedHashMap<>();
+        List<Long> unknownDoctors = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            DoctorSlots slots = doctors.get(doctorId);
+            if (slots != null) {
+                requested.put(doctorId, slots);
+            } else {
+                requested.put(doctorId, null);
+                unknownDoctors.add(doctorId);
+            }
+        }
+        if (!unknownDoctors.isEmpty()) {
+            for (Doctor doctor : doctorRepository.findAllWithScheduleByIdIn(unknownDoctors)) {
+                requested.put(doctor.getId(), doctors.computeIfAbsent(doctor.getId(), id -> new DoctorSlots(doctor)));
+            }
+        }
+        requested.values().removeIf(slots -> slots == null);
+
+        Map<Long, Long> modCounts = new HashMap<>();
+        for (Map.Entry<Long, DoctorSlots> entry : requested.entrySet()) {
+            DoctorSlots slots = entry.getValue();
+            synchronized (slots) {
+                if (!slots.booked.containsKey(date)) {
+                    modCounts.put(entry.getKey(), slots.modCount);
+                }
+            }
+        }
+        Map<Long, BitSet> loaded = new HashMap<>();
+        if (!modCounts.isEmpty()) {
+            modCounts.keySet().forEach(doctorId -> loaded.put(doctorId, new BitSet(MINUTES_PER_DAY)));
+            for (Object[] row : appointmentRepository.findDoctorIdAndAppointmentTimeByDoctorIdInBetween(modCounts.keySet(), date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+                loaded.get((Long) row[0]).set(minuteOfDay((LocalDateTime) row[1]));
+            }
+            for (Map.Entry<Long, BitSet> entry : loaded.entrySet()) {
+                DoctorSlots slots = requested.get(entry.getKey());
+                synchronized (slots) {
+                    if (slots.modCount == modCounts.get(entry.getKey())) {
+                        slots.booked.putIfAbsent(date, entry.getValue());
+                    }
+                }
+            }
+        }
+
+        Map<Long, List<String>> availability = new LinkedHashMap<>();
+        for (Map.Entry<Long, DoctorSlots> entry : requested.entrySet()) {
+            DoctorSlots slots = entry.getValue();
+            BitSet booked;
+            synchronized (slots) {
+                booked = slots.booked.get(date);
+            }
+            if (booked == null) {
+                booked = loaded.containsKey(entry.getKey()) ? loaded.get(entry.getKey()) : getBooked(entry.getKey(), slots, date);
+            }
+            synchronized (slots) {
+                availability.put(entry.getKey(), freeSlots(entry.getKey(), slots, date, booked, viewerId));
+            }
+        }
+        return availability;
+    }
+
+    /**
+     * Checks whether an appointment time starts a free slot of the doctor
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param viewerId ID of the patient asking, whose own hold counts as free, or null
+     * @return True if free, false if booked, held by someone else, or not a slot start, null if the doctor does not exist
+     */
+    public Boolean isAvailable(final Long doctorId, final LocalDateTime time, final Long viewerId) {
+        DoctorSlots slots = getDoctorSlots(doctorId);
+        if (slots == null) return null;
+        if (time.getSecond() != 0 || time.getNano() != 0) return false;
+
+        int minute = minuteOfDay(time);
+        if (Arrays.binarySearch(slots.startsOf(time.getDayOfWeek()), minute) < 0) return false;
+        if (slotHolds.isHeldByOther(doctorId, time, viewerId)) return false;
+
+        BitSet booked = getBooked(doctorId, slots, time.toLocalDate());
+        synchronized (slots) {
+            return !booked.get(minute);
+        }
+    }
+
+    /**
+     * Checks many appointment times of one doctor at once, loading the booked days they span with a single query
+     * @param doctorId ID of the doctor
+     * @param times Appointment start times
+     * @param viewerId ID of the patient asking, whose own holds count as free, or null
+     * @return Reason by time for every time that cannot be booked, in the order given, or null if the doctor does not exist
+     */
+    public Map<LocalDateTime, String> findConflicts(final Long doctorId, final List<LocalDateTime> times, final Long viewerId) {
+        DoctorSlots slots = getDoctorSlots(doctorId);
+        if (slots == null) return null;
+
+        Map<LocalDateTime, String> conflicts = new LinkedHashMap<>();
+        if (times.isEmpty()) return conflicts;
+        LocalDate from = times.get(0).toLocalDate();
+        LocalDate to = from;
+        for (LocalDateTime time : times) {
+            if (time.toLocalDate().isBefore(from)) from = time.toLocalDate();
+            if (time.toLocalDate().isAfter(to)) to = time.toLocalDate();
+        }
+
+        Map<LocalDate, BitSet> booked = getBooked(doctorId, slots, from, to);
+        synchronized (slots) {
+            for (LocalDateTime time : times) {
+                int minute = minuteOfDay(time);
+                if (time.getSecond() != 0 || time.getNano() != 0 || Arrays.binarySearch(slots.startsOf(time.getDayOfWeek()), minute) < 0) {
+                    conflicts.put(time, "Not a slot of the doctor's schedule");
+                } else if (booked.get(time.toLocalDate()).get(minute)) {
+                    conflicts.put(time, "Already booked");
+                } else if (slotHolds.isHeldByOther(doctorId, time, viewerId)) {
+                    conflicts.put(time, "Held by another patient");
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Marks an appointment time as booked
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     */
+    public void book(final Long doctorId, final LocalDateTime time) {
+        update(doctorId, time, true);
+    }
+
+    /**
+     * Marks an appointment time as free again
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     */
+    public void cancel(final Long doctorId, final LocalDateTime time) {
+        update(doctorId, time, false);
+    }
+
+    /**
+     * Forgets the booked days of a doctor, such as after it was booked or cancelled on another node. They are reloaded on next use.
+     * @param doctorId ID of the doctor
+     */
+    public void invalidateBookings(final Long doctorId) {
+        DoctorSlots slots = doctors.get(doctorId);
+        if (slots == null) return;
+
+        synchronized (slots) {
+            slots.modCount++; // Loads in flight read the database before the change and must not be cached
+            slots.booked.clear();
+        }
+    }
+
+    /**
+     * Forgets the booked days of every doctor, such as after booking events from another node were missed
+     */
+    public void invalidateAllBookings() {
+        for (Long doctorId : doctors.keySet()) {
+            Lock lock = bookingLocks.forDoctor(doctorId);
+            lock.lock();
+            try {
+                invalidateBookings(doctorId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replaces the schedule of a doctor after it was saved or updated, keeping the booked days
+     * @param doctor Saved doctor
+     */
+    public void refreshDoctor(final Doctor doctor) {
+        doctors.compute(doctor.getId(), (id, previous) -> {
+            DoctorSlots slots = new DoctorSlots(doctor);
+            if (previous != null) {
+                synchronized (previous) {
+                    slots.booked.putAll(previous.booked);
+                }
+            }
+            return slots;
+        });
+    }
+
+    /**
+     * Removes a deleted doctor from the index
+     * @param doctorId ID of the doctor
+     */
+    public void removeDoctor(final Long doctorId) {
+        doctors.remove(doctorId);
+    }
+
+    /**
+     * Rebuilds the index from the database: every doctor's schedule, and the booked minutes of the upcoming days in one query.
+     * Each doctor is swapped in under its booking lock. If the doctor was booked or cancelled since the rebuild started,
+     * its rebuilt days may predate that change, so they are dropped and reloaded on next use instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusDays(preloadDays);
+
+        Map<Long, Long> modCounts = new HashMap<>();
+        doctors.forEach((doctorId, slots) -> {
+            synchronized (slots) {
+                modCounts.put(doctorId, slots.modCount);
+            }
+        });
+
+        Map<Long, DoctorSlots> rebuilt = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAllWithSchedule()) {
+            DoctorSlots slots = new DoctorSlots(doctor);
+            for (LocalDate date = today; date.isBefore(end); date = date.plusDays(1)) {
+                slots.booked.put(date, new BitSet(MINUTES_PER_DAY));
+            }
+            rebuilt.put(doctor.getId(), slots);
+        }
+
+        for (Object[] row : appointmentRepository.findDoctorIdAndAppointmentTimeBetween(today.atStartOfDay(), end.atStartOfDay())) {
+            DoctorSlots slots = rebuilt.get((Long) row[0]);
+            LocalDateTime time = (LocalDateTime) row[1];
+            if (slots != null) {
+                slots.booked.get(time.toLocalDate()).set(minuteOfDay(time));
+            }
+        }
+
+        for (Map.Entry<Long, DoctorSlots> entry : rebuilt.entrySet()) {
+            Lock lock = bookingLocks.forDoctor(entry.getKey());
+            lock.lock();
+            try {
+                DoctorSlots previous = doctors.get(entry.getKey());
+                if (previous != null) {
+                    synchronized (previous) {
+                        if (previous.modCount != modCounts.getOrDefault(entry.getKey(), 0L)) {
+                            entry.getValue().booked.clear();
+                        }
+                    }
+                }
+                doctors.put(entry.getKey(), entry.getValue());
+            } finally {
+                lock.unlock();
+            }
+        }
+        doctors.keySet().retainAll(rebuilt.keySet());
+        log.info("Slot index rebuilt for {} doctors in {} ms", rebuilt.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Drops booked bitsets of days that have passed
+     */
+    @Scheduled(cron = "${slots.eviction-cron:0 5 0 * * *}")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        for (DoctorSlots slots : doctors.values()) {
+            synchronized (slots) {
+                slots.booked.keySet().removeIf(date -> date.isBefore(today));
+            }
+        }
+    }
+
+    /**
+     * Gets the slots of a doctor, loading the doctor from the database on first use
+     * @param doctorId ID of the doctor
+     * @return Slots of the doctor, or null if the doctor does not exist
+     */
+    private DoctorSlots getDoctorSlots(final Long doctorId) {
+        DoctorSlots slots = doctors.get(doctorId);
+        if (slots != null) return slots;
+
+        Doctor doctor = doctorRepository.findWithScheduleById(doctorId);
+        if (doctor == null) return null;
+        return doctors.computeIfAbsent(doctorId, id -> new DoctorSlots(doctor));
+    }
+
+    /**
+     * Gets the booked minutes of a doctor on a date, loading them from the database on first use
+     * @param doctorId ID of the doctor
+     * @param slots Slots of the doctor
+     * @param date Date to look up
+     * @return Bitset of booked minutes of the day, to be read while holding the slots lock
+     */
+    private BitSet getBooked(final Long doctorId, final DoctorSlots slots, final LocalDate date) {
+        return getBooked(doctorId, slots, date, date).get(date);
+    }
+
+    /**
+     * Gets the booked minutes of a doctor for every day of a date range.
+     * Days that are not loaded yet are read with a single query spanning the first to the last missing day.
+     * If the doctor is booked or cancelled while loading, the loaded days are not cached and are read again next time.
+     * @param doctorId ID of the doctor
+     * @param slots Slots of the doctor
+     * @param from First date of the range
+     * @param to Last date of the range (inclusive)
+     * @return Bitsets of booked minutes by date, to be read while holding the slots lock
+     */
+    private Map<LocalDate, BitSet> getBooked(final Long doctorId, final DoctorSlots slots, final LocalDate from, final LocalDate to) {
+        Map<LocalDate, BitSet> days = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        long modCount;
+        synchronized (slots) {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                BitSet booked = slots.booked.get(date);
+                if (booked != null) {
+                    days.put(date, booked);
+                } else {
+                    if (firstMissing == null) firstMissing = date;
+                    lastMissing = date;
+                }
+            }
+            modCount = slots.modCount;
+        }
+        if (firstMissing == null) return days;
+
+        Map<LocalDate, BitSet> loaded = new HashMap<>();
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            if (!days.containsKey(date)) {
+                loaded.put(date, new BitSet(MINUTES_PER_DAY));
+            }
+        }
+        for (LocalDateTime time : appointmentRepository.findAppointmentTimesByDoctorIdBetween(doctorId, firstMissing.atStartOfDay(), lastMissing.plusDays(1).atStartOfDay())) {
+            BitSet booked = loaded.get(time.toLocalDate());
+            if (booked != null) {
+                booked.set(minuteOfDay(time));
+            }
+        }
+
+        synchronized (slots) {
+            if (slots.modCount == modCount) {
+                slots.booked.putAll(loaded);
+            }
+        }
+        days.putAll(loaded);
+        return days;
+    }
+
+    /**
+     * Sets or clears the booked bit of an appointment time if its day is loaded
+     * @param doctorId ID of the doctor
+     * @param time Appointment start time
+     * @param booked True to mark as booked, false to mark as free
+     */
+    private void update(final Long doctorId, final LocalDateTime time, final boolean booked) {
+        DoctorSlots slots = doctors.get(doctorId);
+        if (slots == null) return;
+
+        synchronized (slots) {
+            slots.modCount++;
+            BitSet day = slots.booked.get(time.toLocalDate());
+            if (day != null) {
+                day.set(minuteOfDay(time), booked);
+            }
+        }
+    }
+
+    /**
+     * Lists the slots of a day that are neither booked nor held by someone else. Must be called while holding the slots lock.
+     * @param doctorId ID of the doctor
+     * @param slots Slots of the doctor
+     * @param date Date to list
+     * @param booked Booked minutes of the day
+     * @param viewerId ID of the patient asking, or null
+     * @return Free slots such as "09:00 - 10:00"
+     */
+    private List<String> freeSlots(final Long doctorId, final DoctorSlots slots, final LocalDate date, final BitSet booked, final Long viewerId) {
+        int[] starts = slots.startsOf(date.getDayOfWeek());
+        boolean checkHolds = slotHolds.hasHolds(doctorId);
+        List<String> available = new ArrayList<>(starts.length);
+        for (int start : starts) {
+            if (booked.get(start)) continue;
+            if (checkHolds && slotHolds.isHeldByOther(doctorId, date.atTime(start / 60, start % 60), viewerId)) continue;
+            available.add(ScheduleWindow.formatSlot(start, slots.slotMinutes));
+        }
+        return available;
+    }
+
+    private static int minuteOfDay(final LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Schedule and booked days of one doctor. Booked bitsets are guarded by the instance lock.
+     */
+    private static final class DoctorSlots {
+        private final int slotMinutes;
+        private final int[][] startsByDay = new int[7][]; // indexed by DayOfWeek ordinal, never changed after construction
+        private final Map<LocalDate, BitSet> booked = new HashMap<>();
+        private long modCount;
+
+        private DoctorSlots(final Doctor doctor) {
+            final List<ScheduleWindow> schedule = doctor.getSchedule() == null ? List.of() : doctor.getSchedule();
+            this.slotMinutes = doctor.getSlotMinutes();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                startsByDay[day.ordinal()] = ScheduleWindow.expandSlots(schedule, slotMinutes, day);
+            }
+        }
+
+        /**
+         * Gets the slot start minutes of a weekday. Safe without the instance lock.
+         * @param day Day of the week
+         * @return Sorted slot start minutes
+         */
+        private int[] startsOf(final DayOfWeek day) {
+            return startsByDay[day.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.project.back_end.services;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TimingWheel implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final long tickMillis;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private final long startMillis;
+    private long tick; // only touched by the ticker thread
+
+    /**
+     * Constructor for TimingWheel
+     * @param name Name of the ticker thread
+     * @param tickMillis Duration of one tick
+     * @param wheelSize Number of buckets, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(final String name, final long tickMillis, final int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.startMillis = System.currentTimeMillis();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a task to run once after a delay
+     * @param task Task to run on the ticker thread; it must be short
+     * @param delayMillis Delay before the task runs
+     * @return Timeout that can be cancelled
+     */
+    public Timeout schedule(final Runnable task, final long delayMillis) {
+        Timeout timeout = new Timeout(task, System.currentTimeMillis() - startMillis + delayMillis);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the ticker thread; pending tasks are dropped
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Moves new timeouts into their buckets and expires the bucket under the hand.
+     * A failing task is logged and does not keep the other tasks of the bucket from running or the hand from moving on.
+     */
+    private void advance() {
+        try {
+            Timeout timeout;
+            while ((timeout = pending.poll()) != null) {
+                if (timeout.cancelled) continue;
+                long deadlineTick = timeout.deadlineMillis / tickMillis;
+                timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+                buckets[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+            }
+
+            Iterator<Timeout> iterator = buckets[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Timeout candidate = iterator.next();
+                if (candidate.cancelled) {
+                    iterator.remove();
+                } else if (candidate.remainingRounds <= 0) {
+                    iterator.remove();
+                    run(candidate);
+                } else {
+                    candidate.remainingRounds--;
+                }
+            }
+        } finally {
+            tick++;
+        }
+    }
+
+    private static void run(final Timeout timeout) {
+        try {
+            timeout.task.run();
+        } catch (RuntimeException | Error e) { // Anything escaping advance would cancel the ticker for good
+            log.error("Timing wheel task failed", e);
+        }
+    }
+
+    /**
+     * Handle of a scheduled task
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineMillis; // relative to the start of the wheel
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(final Runnable task, final long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * Cancels the task if it has not run yet
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+    }
+}
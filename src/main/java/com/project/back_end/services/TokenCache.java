@@ -0,0 +1,165 @@
+package com.project.back_end.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+public class TokenCache {
+    private final int maximumSize;
+    private final long maxTtlMillis;
+    private final int evictionSlack; // Entries allowed above maximumSize before an eviction pass runs
+    private final Map<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor for TokenCache
+     * @param maximumSize Maximum number of tokens to keep; above it the least recently used ones are evicted
+     * @param maxTtlMillis Maximum time an entry may be served without re-verification
+     */
+    public TokenCache(final int maximumSize, final long maxTtlMillis) {
+        this.maximumSize = maximumSize;
+        this.maxTtlMillis = maxTtlMillis;
+        this.evictionSlack = Math.max(1, maximumSize / 10);
+    }
+
+    /**
+     * Looks up a verified token by its digest. Lookups take no lock; a hit only records its access time.
+     * @param digest Digest of the token
+     * @return The cached entry, or null if absent or expired
+     */
+    public VerifiedToken get(final String digest) {
+        VerifiedToken token = entries.get(digest);
+        if (token == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (token.isExpired(now)) {
+            if (entries.remove(digest, token)) evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        token.touch(now);
+        hits.incrementAndGet();
+        return token;
+    }
+
+    /**
+     * Caches a verified token
+     * @param digest Digest of the token
+     * @param tokenExpiresAtMillis Expiry of the token itself
+     * @param identifier Subject of the token
+     * @param role Role claim of the token, or null
+     * @param principalId Principal ID claim of the token, or null
+     * @return The cached entry
+     */
+    public VerifiedToken put(final String digest, final long tokenExpiresAtMillis, final String identifier, final String role, final Long principalId) {
+        long expiresAt = Math.min(tokenExpiresAtMillis, System.currentTimeMillis() + maxTtlMillis);
+        VerifiedToken token = new VerifiedToken(identifier, role, principalId, expiresAt);
+        entries.put(digest, token);
+        if (entries.size() > maximumSize + evictionSlack) {
+            evict();
+        }
+        return token;
+    }
+
+    /**
+     * Removes a token from the cache
+     * @param digest Digest of the token
+     */
+    public void invalidate(final String digest) {
+        entries.remove(digest);
+    }
+
+    /**
+     * Removes every token that matches a condition
+     * @param condition Condition on the cached entry
+     */
+    public void invalidateIf(final Predicate<VerifiedToken> condition) {
+        entries.values().removeIf(condition);
+    }
+
+    /**
+     * Removes every token from the cache
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Get cache statistics
+     * @return Map with the size, hit, miss, and eviction counters
+     */
+    public Map<String, Long> getStats() {
+        return Map.of(
+            "size", (long) entries.size(),
+            "maximumSize", (long) maximumSize,
+            "hits", hits.get(),
+            "misses", misses.get(),
+            "evictions", evictions.get()
+        );
+    }
+
+    /**
+     * Drops expired entries, then the least recently used ones until the cache is back at its maximum size.
+     * The cache may briefly hold up to a tenth more entries than the maximum, so this runs once per that many puts;
+     * puts that find a pass already running skip it.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) return;
+        try {
+            long now = System.currentTimeMillis();
+            List<Candidate> live = new ArrayList<>(entries.size());
+            for (Map.Entry<String, VerifiedToken> entry : entries.entrySet()) {
+                VerifiedToken token = entry.getValue();
+                if (token.isExpired(now)) {
+                    if (entries.remove(entry.getKey(), token)) evictions.incrementAndGet();
+                } else {
+                    live.add(new Candidate(entry.getKey(), token, token.getLastAccessMillis())); // Access time read once, so the sort sees fixed keys
+                }
+            }
+
+            int excess = entries.size() - maximumSize;
+            if (excess <= 0) return;
+            live.sort(Comparator.comparingLong(Candidate::lastAccessMillis));
+            for (int i = 0; i < live.size() && excess > 0; i++) {
+                if (entries.remove(live.get(i).digest(), live.get(i).token())) {
+                    evictions.incrementAndGet();
+                    excess--;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Computes the cache key for a token
+     * @param token JWT token
+     * @return Hex encoded SHA-256 digest of the token
+     */
+    public static String digest(final String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Candidate(String digest, VerifiedToken token, long lastAccessMillis) {
+    }
+}
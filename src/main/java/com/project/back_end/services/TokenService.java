@@ -1,33 +1,71 @@
 package com.project.back_end.services;
 
 import java.util.Date;
+import java.util.Map;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
 import com.project.back_end.repositories.AdminRepository;
 import com.project.back_end.repositories.DoctorRepository;
 import com.project.back_end.repositories.PatientRepository;
+import com.project.back_end.security.AuthPrincipal;
+import com.project.back_end.security.TokenRevocationStore;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class TokenService {
+    private static final String ROLE_CLAIM = "role";
+    private static final String PRINCIPAL_ID_CLAIM = "principalId";
+
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final TokenRevocationStore revocationStore;
     
     @Value("${jwt.secret:mySecretKey123456789012345678901234567890}")
     private String jwtSecret;
+
+    // Off by default: authorization then checks that the user still exists. When on, the signed claims alone authorize
+    // a request, so a deleted user's token keeps working until it expires.
+    @Value("${jwt.trust-claims:false}")
+    private boolean trustClaims;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${jwt.cache.max-ttl-seconds:300}")
+    private long cacheMaxTtlSeconds;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private TokenCache tokenCache;
     
-    public TokenService(AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository) {
+    public TokenService(AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository, TokenRevocationStore revocationStore) {
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        this.revocationStore = revocationStore;
+    }
+
+    /**
+     * Builds the signing key, parser, and verified-token cache once the secret has been injected
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.tokenCache = new TokenCache(cacheMaxSize, cacheMaxTtlSeconds * 1000);
     }
 
     /**
@@ -36,13 +74,29 @@ public class TokenService {
      * @return Generated JWT token
      */
     public String generateToken(final String identifier) {
+        return generateToken(identifier, null, null);
+    }
+
+    /**
+     * Generates a JWT token carrying signed role and principal ID claims, so it can be authorized without a database lookup
+     * @param identifier Unique identifier for the user (username for Admin and email for Doctor and Patient)
+     * @param role Type of user (admin, doctor, patient)
+     * @param principalId ID of the admin, doctor, or patient
+     * @return Generated JWT token
+     */
+    public String generateToken(final String identifier, final String role, final Long principalId) {
         Date now = new Date();
         Date expiration = new Date(now.getTime() + 7 * 24 * 60 * 60 * 1000); // 7 days
         
-        return Jwts.builder()
+        var builder = Jwts.builder()
             .subject(identifier)
             .issuedAt(now)
-            .expiration(expiration)
+            .expiration(expiration);
+        if (role != null && principalId != null) {
+            builder.claim(ROLE_CLAIM, role.toLowerCase())
+                .claim(PRINCIPAL_ID_CLAIM, principalId);
+        }
+        return builder
             .signWith(getSigningKey())
             .compact();
     }
@@ -53,38 +107,50 @@ public class TokenService {
      * @return Identifier extracted from the token
      */
     public String extractIdentifier(final String token) {
-        try {
-            Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-            return claims.getSubject();
-        } catch (Exception e) {
-            return null;
-        }
+        VerifiedToken verified = verify(token);
+        return verified == null ? null : verified.getIdentifier();
     }
 
     /**
-     * Validates the JWT token for a given user type (admin, doctor, or patient)
+     * Validates the JWT token for a given user type (admin, doctor, or patient).
+     * Tokens with signed role claims are checked against the claim; older tokens fall back to a repository lookup.
      * @param token JWT token to be validated
      * @param user Type of user (admin, doctor, patient, etc.)
      * @return True if the token is valid for the specified user type and false if token is invalid or expired
      */
     public boolean validateToken(final String token, final String user) {
-        String identifier = extractIdentifier(token);
-        if (identifier == null) return false;
-        
-        switch (user.toLowerCase()) {
-            case "admin":
-                return adminRepository.findByUsername(identifier) != null;
-            case "doctor":
-                return doctorRepository.findByEmail(identifier) != null;
-            case "patient":
-                return patientRepository.findByEmail(identifier) != null;
+        VerifiedToken verified = verify(token);
+        if (verified == null) return false;
+
+        String role = user.toLowerCase();
+        if (trustClaims && verified.hasClaims()) return role.equals(verified.getRole());
+        if (verified.hasRole(role)) return true;
+
+        String identifier = verified.getIdentifier();
+        Long id;
+        switch (role) {
+            case "admin": {
+                Admin admin = adminRepository.findByUsername(identifier);
+                id = admin == null ? null : admin.getId();
+                break;
+            }
+            case "doctor": {
+                Doctor doctor = doctorRepository.findByEmail(identifier);
+                id = doctor == null ? null : doctor.getId();
+                break;
+            }
+            case "patient": {
+                Patient patient = patientRepository.findByEmail(identifier);
+                id = patient == null ? null : patient.getId();
+                break;
+            }
             default:
                 return false;
         }
+
+        if (id == null) return false;
+        verified.confirmRole(role, id);
+        return true;
     }
     
     /**
@@ -96,11 +162,160 @@ public class TokenService {
         return extractIdentifier(token);
     }
 
+    /**
+     * Revokes a token so it is rejected until it expires
+     * @param token JWT token to be revoked
+     * @return True if the token was valid and is now revoked, false if it was already invalid or expired
+     */
+    public boolean revokeToken(final String token) {
+        if (verify(token) == null) return false;
+
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String digest = TokenCache.digest(token);
+            revocationStore.revoke(digest, claims.getExpiration().getTime());
+            tokenCache.invalidate(digest);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Forgets every cached token of a user, so its next request checks the user again. Called when the user is deleted.
+     * @param user Type of user (admin, doctor, patient)
+     * @param id ID of the admin, doctor, or patient
+     */
+    public void evictPrincipal(final String user, final Long id) {
+        String role = user.toLowerCase();
+        tokenCache.invalidateIf(token -> token.belongsTo(role, id));
+    }
+
+    /**
+     * Forgets every cached token, such as after deletions from other nodes may have been missed
+     */
+    public void evictAll() {
+        tokenCache.invalidateAll();
+    }
+
+    /**
+     * Extracts the principal ID claim of a token issued for a given user type
+     * @param token JWT token to be validated
+     * @param user Type of user (admin, doctor, patient)
+     * @return ID of the admin, doctor, or patient, or null if the token is invalid, has no claims, or is for another user type
+     */
+    public Long extractPrincipalId(final String token, final String user) {
+        VerifiedToken verified = verify(token);
+        if (verified == null || !trustClaims || !verified.hasClaims()) return null;
+        return verified.getRole().equals(user.toLowerCase()) ? verified.getPrincipalId() : null;
+    }
+
+    /**
+     * Resolves the authenticated principal of a token for a given user type
+     * @param token JWT token to be validated
+     * @param user Type of user (admin, doctor, patient)
+     * @return Principal whose entity is loaded on first use, or null if the token is invalid or not issued for that user type
+     */
+    public AuthPrincipal resolvePrincipal(final String token, final String user) {
+        VerifiedToken verified = verify(token);
+        if (verified == null) return null;
+
+        String role = user.toLowerCase();
+        String identifier = verified.getIdentifier();
+        if (trustClaims && verified.hasClaims()) {
+            if (!role.equals(verified.getRole())) return null;
+            Long id = verified.getPrincipalId();
+            return new AuthPrincipal(role, id, identifier, () -> findById(role, id));
+        }
+
+        switch (role) {
+            case "admin": {
+                Admin admin = adminRepository.findByUsername(identifier);
+                return admin == null ? null : new AuthPrincipal(role, admin.getId(), identifier, admin);
+            }
+            case "doctor": {
+                Doctor doctor = doctorRepository.findByEmail(identifier);
+                return doctor == null ? null : new AuthPrincipal(role, doctor.getId(), identifier, doctor);
+            }
+            case "patient": {
+                Patient patient = patientRepository.findByEmail(identifier);
+                return patient == null ? null : new AuthPrincipal(role, patient.getId(), identifier, patient);
+            }
+            default:
+                return null;
+        }
+    }
+
     /**
      * Retrieves the signing key used for JWT token signing
      * @return Key used for signing the JWT
      */
     public SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return this.signingKey;
+    }
+
+    /**
+     * Get statistics of the verified-token cache
+     * @return Map with the size, hit, miss, and eviction counters
+     */
+    public Map<String, Long> getCacheStats() {
+        return tokenCache.getStats();
+    }
+
+    /**
+     * Get statistics of the token revocation store
+     * @return Map with the number of revoked tokens
+     */
+    public Map<String, Long> getRevocationStats() {
+        return revocationStore.getStats();
+    }
+
+    /**
+     * Loads the admin, doctor, or patient entity of a principal
+     * @param role Type of user (admin, doctor, patient)
+     * @param id ID of the admin, doctor, or patient
+     * @return The entity, or null if it no longer exists
+     */
+    private Object findById(final String role, final Long id) {
+        switch (role) {
+            case "admin":
+                return adminRepository.findById(id).orElse(null);
+            case "doctor":
+                return doctorRepository.findById(id).orElse(null);
+            case "patient":
+                return patientRepository.findById(id).orElse(null);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Verifies a token, using the cache to skip signature checks for tokens that were already verified.
+     * Revoked tokens are rejected before the cache is consulted.
+     * @param token JWT token to be verified
+     * @return Verified token entry, or null if the token is invalid or expired
+     */
+    private VerifiedToken verify(final String token) {
+        if (token == null) return null;
+
+        String digest = TokenCache.digest(token);
+        if (revocationStore.isRevoked(digest)) return null;
+
+        VerifiedToken cached = tokenCache.get(digest);
+        if (cached != null) return cached;
+
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Object principalId = claims.get(PRINCIPAL_ID_CLAIM);
+            return tokenCache.put(
+                digest,
+                claims.getExpiration().getTime(),
+                claims.getSubject(),
+                claims.get(ROLE_CLAIM, String.class),
+                principalId instanceof Number number ? number.longValue() : null
+            );
+        } catch (Exception e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,121 @@
+package com.project.back_end.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class VerifiedToken {
+    private final String identifier;
+    private final String role;
+    private final Long principalId;
+    private final long expiresAtMillis;
+    private final Map<String, Long> confirmedRoles = new ConcurrentHashMap<>(); // user type -> ID the identifier was found with
+    private volatile long lastAccessMillis;
+
+    /**
+     * Constructor for VerifiedToken
+     * @param identifier Subject of the token (username for Admin and email for Doctor and Patient)
+     * @param role Signed role claim, or null for tokens issued without one
+     * @param principalId Signed principal ID claim, or null for tokens issued without one
+     * @param expiresAtMillis Epoch millis after which the entry must not be used
+     */
+    public VerifiedToken(final String identifier, final String role, final Long principalId, final long expiresAtMillis) {
+        this.identifier = identifier;
+        this.role = role;
+        this.principalId = principalId;
+        this.expiresAtMillis = expiresAtMillis;
+        this.lastAccessMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Get Identifier
+     * @return identifier
+     */
+    public String getIdentifier() {
+        return this.identifier;
+    }
+
+    /**
+     * Get Role
+     * @return role
+     */
+    public String getRole() {
+        return this.role;
+    }
+
+    /**
+     * Get Principal ID
+     * @return principalId
+     */
+    public Long getPrincipalId() {
+        return this.principalId;
+    }
+
+    /**
+     * Checks whether the token carries signed role and principal ID claims
+     * @return True if both claims are present
+     */
+    public boolean hasClaims() {
+        return this.role != null && this.principalId != null;
+    }
+
+    /**
+     * Get Expires At Millis
+     * @return expiresAtMillis
+     */
+    public long getExpiresAtMillis() {
+        return this.expiresAtMillis;
+    }
+
+    /**
+     * Checks whether the entry is past its expiry
+     * @param nowMillis Current epoch millis
+     * @return True if the entry has expired
+     */
+    public boolean isExpired(final long nowMillis) {
+        return nowMillis >= this.expiresAtMillis;
+    }
+
+    /**
+     * Checks whether the identifier was already confirmed for a user type
+     * @param role User type (admin, doctor, patient)
+     * @return True if the role was confirmed before
+     */
+    public boolean hasRole(final String role) {
+        return this.confirmedRoles.containsKey(role);
+    }
+
+    /**
+     * Records that the identifier belongs to a user type
+     * @param role User type (admin, doctor, patient)
+     * @param id ID of the admin, doctor, or patient the identifier was found with
+     */
+    public void confirmRole(final String role, final Long id) {
+        this.confirmedRoles.put(role, id);
+    }
+
+    /**
+     * Checks whether the token authenticates a given user, through its claims or a confirmed role
+     * @param role User type (admin, doctor, patient)
+     * @param id ID of the admin, doctor, or patient
+     * @return True if the token belongs to that user
+     */
+    public boolean belongsTo(final String role, final Long id) {
+        return (role.equals(this.role) && id.equals(this.principalId)) || id.equals(this.confirmedRoles.get(role));
+    }
+
+    /**
+     * Get Last Access Millis
+     * @return Epoch millis of the last cache hit, or of the creation of the entry
+     */
+    public long getLastAccessMillis() {
+        return this.lastAccessMillis;
+    }
+
+    /**
+     * Records a cache hit, for eviction
+     * @param nowMillis Current epoch millis
+     */
+    public void touch(final long nowMillis) {
+        this.lastAccessMillis = nowMillis;
+    }
+}
@@ -0,0 +1,63 @@
+package com.project.back_end.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.project.back_end.invalidation.InvalidationBus;
+import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.DoctorDirectory;
+import com.project.back_end.services.MonthlyPatientCounts;
+import com.project.back_end.services.ReportService;
+import com.project.back_end.services.TokenService;
+
+class AdminControllerTest {
+    private ClinicService clinicService;
+    private ReportService reportService;
+    private AdminController controller;
+
+    @BeforeEach
+    void setUp() {
+        clinicService = mock(ClinicService.class);
+        reportService = mock(ReportService.class);
+        controller = new AdminController(clinicService, mock(TokenService.class), mock(DoctorDirectory.class), mock(InvalidationBus.class),
+            reportService, mock(MonthlyPatientCounts.class));
+        when(clinicService.validateToken("admin-token", "admin")).thenReturn(true);
+    }
+
+    @Test
+    void dailyReportStreamsTheRequestedFormat() throws Exception {
+        ResponseEntity<?> csv = controller.getDailyReport("2030-03-04", "admin-token", "CSV");
+        ResponseEntity<?> ndjson = controller.getDailyReport("2030-03-04", "admin-token", "ndjson");
+
+        assertThat(csv.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv"))).isTrue();
+        assertThat(csv.getHeaders().getContentDisposition().getFilename()).isEqualTo("appointments-2030-03-04.csv");
+        assertThat(ndjson.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        verifyNoInteractions(reportService); // Nothing is read until the body is written
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) csv.getBody()).writeTo(out);
+        ((StreamingResponseBody) ndjson.getBody()).writeTo(out);
+        verify(reportService).writeDailyReportCsv(LocalDate.of(2030, 3, 4), out);
+        verify(reportService).writeDailyReportNdjson(LocalDate.of(2030, 3, 4), out);
+    }
+
+    @Test
+    void dailyReportRejectsBadRequestsBeforeReading() {
+        assertThat(controller.getDailyReport("2030-03-04", "patient-token", "csv").getStatusCode().value()).isEqualTo(401);
+        assertThat(controller.getDailyReport("04/03/2030", "admin-token", "csv").getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.getDailyReport("2030-03-04", "admin-token", "xml").getStatusCode().value()).isEqualTo(400);
+        verifyNoInteractions(reportService);
+    }
+}
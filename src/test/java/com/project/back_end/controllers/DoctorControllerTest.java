@@ -0,0 +1,150 @@
+package com.project.back_end.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.security.AuthPrincipal;
+import com.project.back_end.services.ClinicService;
+import com.project.back_end.services.DirectoryVersion;
+import com.project.back_end.services.DoctorService;
+
+class DoctorControllerTest {
+    private DoctorService doctorService;
+    private ClinicService clinicService;
+    private DirectoryVersion directoryVersion;
+    private DoctorController controller;
+    private ServletWebRequest request;
+
+    @BeforeEach
+    void setUp() {
+        doctorService = mock(DoctorService.class);
+        controller = new DoctorController(doctorService, clinicService = mock(ClinicService.class), directoryVersion = mock(DirectoryVersion.class));
+        ReflectionTestUtils.setField(controller, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(controller, "maxPageSize", 200);
+        ReflectionTestUtils.setField(controller, "maxAvailabilityDays", 62);
+        ReflectionTestUtils.setField(controller, "maxBatchDoctors", 3);
+        request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+
+    @Test
+    void withoutCursorOrLimitEveryDoctorIsListed() {
+        List<DoctorSummary> all = List.of(new DoctorSummary(1L, "Doctor 1", "Cardiology", "doctor1@clinic.com", "1000000001", List.of(), 60, 5, "Main street"));
+        when(doctorService.getDoctors()).thenReturn(all);
+
+        ResponseEntity<Map<String, Object>> response = controller.getDoctors("id", null, null, request);
+
+        assertThat(response.getBody()).isEqualTo(Map.of("doctors", all));
+    }
+
+    @Test
+    void aCursorOrALimitAsksForAPage() {
+        when(doctorService.getDoctorPage("name", null, 10)).thenReturn(ResponseEntity.ok(Map.of("doctors", List.of())));
+        when(doctorService.getDoctorPage("id", "cursor", 50)).thenReturn(ResponseEntity.ok(Map.of("doctors", List.of())));
+
+        controller.getDoctors("name", null, 10, request);
+        controller.getDoctors("id", "cursor", null, request);
+
+        verify(doctorService).getDoctorPage("name", null, 10);
+        verify(doctorService).getDoctorPage("id", "cursor", 50);
+    }
+
+    @Test
+    void limitsOutsideTheAllowedRangeAreRejected() {
+        assertThat(controller.getDoctors("id", null, 0, request).getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.getDoctors("id", null, 201, request).getStatusCode().value()).isEqualTo(400);
+        verifyNoInteractions(doctorService);
+    }
+
+    @Test
+    void availabilityRangesOutsideTheAllowedSpanAreRejected() {
+        AuthPrincipal patient = new AuthPrincipal("patient", 7L, "ada@example.com", (Object) null);
+        LocalDate from = LocalDate.of(2030, 1, 1);
+
+        assertThat(controller.getDoctorAvailabilityRange(1L, from, from.minusDays(1), patient).getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.getDoctorAvailabilityRange(1L, from, from.plusDays(62), patient).getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.getDoctorAvailabilityRange(1L, from, from.plusDays(61), null).getStatusCode().value()).isEqualTo(401);
+        verifyNoInteractions(doctorService);
+
+        assertThat(controller.getDoctorAvailabilityRange(1L, from, from.plusDays(61), patient).getStatusCode().value()).isEqualTo(200);
+        verify(doctorService).getDoctorAvailability(1L, from, from.plusDays(61), 7L);
+    }
+
+    @Test
+    void batchAvailabilityIsLimitedToTheConfiguredNumberOfDoctors() {
+        AuthPrincipal patient = new AuthPrincipal("patient", 7L, "ada@example.com", (Object) null);
+        LocalDate date = LocalDate.of(2030, 1, 1);
+
+        assertThat(controller.getDoctorsAvailability(date, List.of(1L, 2L, 3L, 4L), patient).getStatusCode().value()).isEqualTo(400);
+        verifyNoInteractions(doctorService);
+
+        assertThat(controller.getDoctorsAvailability(date, List.of(1L, 2L, 3L), patient).getStatusCode().value()).isEqualTo(200);
+        verify(doctorService).getDoctorsAvailability(List.of(1L, 2L, 3L), date, 7L);
+    }
+
+    @Test
+    void aCurrentCopyGetsNotModifiedWithoutReadingDoctors() {
+        when(directoryVersion.eTag()).thenReturn("\"v1\"");
+
+        ServletWebRequest current = conditional("\"v1\"");
+        ResponseEntity<Map<String, Object>> list = controller.getDoctors("id", null, null, current);
+        ServletWebRequest currentSearch = conditional("\"v0\", \"v1\"");
+        ResponseEntity<Map<String, Object>> search = controller.filterDoctors("ada", "AM", "cardiology", currentSearch);
+
+        assertThat(list).isNull();
+        assertThat(search).isNull();
+        assertThat(((MockHttpServletResponse) current.getResponse()).getStatus()).isEqualTo(304);
+        assertThat(((MockHttpServletResponse) currentSearch.getResponse()).getStatus()).isEqualTo(304);
+        verifyNoInteractions(doctorService, clinicService);
+    }
+
+    @Test
+    void aStaleCopyGetsTheListingWithTheCurrentETag() {
+        when(directoryVersion.eTag()).thenReturn("\"v2\"");
+        when(doctorService.getDoctors()).thenReturn(List.of());
+        when(clinicService.filterDoctor("ada", "cardiology", "AM")).thenReturn(Map.of("doctors", List.of()));
+
+        ResponseEntity<Map<String, Object>> list = controller.getDoctors("id", null, null, conditional("\"v1\""));
+        ResponseEntity<Map<String, Object>> search = controller.filterDoctors("ada", "AM", "cardiology", conditional(null));
+
+        for (ResponseEntity<Map<String, Object>> response : List.of(list, search)) {
+            assertThat(response.getStatusCode().value()).isEqualTo(200);
+            assertThat(response.getHeaders().getETag()).isEqualTo("\"v2\"");
+            assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        }
+    }
+
+    @Test
+    void beforeTheDirectoryIsLoadedListingsHaveNoETag() {
+        when(doctorService.getDoctors()).thenReturn(List.of());
+
+        ResponseEntity<Map<String, Object>> response = controller.getDoctors("id", null, null, conditional("\"v1\""));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getHeaders().getETag()).isNull();
+        verify(doctorService).getDoctors();
+    }
+
+    private static ServletWebRequest conditional(final String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/doctor");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,275 @@
+package com.project.back_end.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+class InvalidationBusTest {
+
+    @Test
+    void deliversChangesToOtherNodesOnly() {
+        InProcessInvalidationBus.Hub hub = new InProcessInvalidationBus.Hub();
+        InProcessInvalidationBus first = new InProcessInvalidationBus(hub);
+        InProcessInvalidationBus second = new InProcessInvalidationBus(hub);
+        RecordingListener onFirst = new RecordingListener();
+        RecordingListener onSecond = new RecordingListener();
+        first.subscribe(onFirst);
+        second.subscribe(onSecond);
+
+        first.publish("doctor", 7L, false);
+        first.publish("doctor", 8L, true);
+        first.publish("patient", 9L, false);
+
+        assertThat(onFirst.changes).isEmpty();
+        assertThat(onSecond.changes).containsExactly("7", "8 deleted");
+        assertThat(onSecond.refreshes.get()).isZero();
+    }
+
+    @Test
+    void refreshesAllWhenAnEventIsLost() {
+        InProcessInvalidationBus.Hub hub = new InProcessInvalidationBus.Hub();
+        LossyBus first = new LossyBus(hub);
+        InProcessInvalidationBus second = new InProcessInvalidationBus(hub);
+        RecordingListener listener = new RecordingListener();
+        second.subscribe(listener);
+
+        first.publish("doctor", 1L, false);
+        first.dropNext = true;
+        first.publish("doctor", 2L, false);
+        first.publish("doctor", 3L, false);
+
+        assertThat(listener.changes).containsExactly("1");
+        assertThat(listener.refreshes.get()).isEqualTo(1);
+        assertThat(second.getStats()).containsEntry("gaps", 1L);
+    }
+
+    @Test
+    void refreshesOnlyTheEntityThatLostAnEvent() {
+        InProcessInvalidationBus.Hub hub = new InProcessInvalidationBus.Hub();
+        LossyBus first = new LossyBus(hub);
+        InProcessInvalidationBus second = new InProcessInvalidationBus(hub);
+        RecordingListener doctors = new RecordingListener();
+        RecordingListener patients = new RecordingListener("patient");
+        second.subscribe(doctors);
+        second.subscribe(patients);
+
+        first.publish("patient", 1L, false);
+        first.dropNext = true;
+        first.publish("patient", 2L, false);
+        first.publish("doctor", 3L, false);
+        first.publish("patient", 4L, false);
+
+        assertThat(patients.refreshes.get()).isEqualTo(1);
+        assertThat(doctors.refreshes.get()).isZero();
+        assertThat(doctors.changes).containsExactly("3");
+    }
+
+    @Test
+    void heartbeatRevealsALostLastEvent() {
+        InProcessInvalidationBus.Hub hub = new InProcessInvalidationBus.Hub();
+        LossyBus first = new LossyBus(hub);
+        InProcessInvalidationBus second = new InProcessInvalidationBus(hub);
+        RecordingListener listener = new RecordingListener();
+        second.subscribe(listener);
+
+        first.publish("doctor", 1L, false);
+        first.heartbeat();
+        first.dropNext = true;
+        first.publish("doctor", 2L, false);
+        assertThat(listener.refreshes.get()).isZero();
+
+        first.heartbeat();
+        first.heartbeat();
+
+        assertThat(listener.changes).containsExactly("1");
+        assertThat(listener.refreshes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void deliversChangesBetweenLoopbackSockets() throws Exception {
+        List<Integer> ports = freePorts(2);
+        try (LoopbackSocketInvalidationBus first = new LoopbackSocketInvalidationBus(ports.get(0), ports);
+             LoopbackSocketInvalidationBus second = new LoopbackSocketInvalidationBus(ports.get(1), ports)) {
+            RecordingListener onFirst = new RecordingListener();
+            RecordingListener onSecond = new RecordingListener();
+            first.subscribe(onFirst);
+            second.subscribe(onSecond);
+
+            first.publish("doctor", 5L, false);
+            first.publish("doctor", 6L, true);
+
+            await(() -> onSecond.changes.size() == 2);
+            assertThat(onSecond.changes).containsExactly("5", "6 deleted");
+            assertThat(onSecond.refreshes.get()).isZero();
+            assertThat(onFirst.changes).isEmpty();
+        }
+    }
+
+    @Test
+    void refreshesAllWhenADatagramIsLost() throws Exception {
+        List<Integer> ports = freePorts(2);
+        try (LossySocketBus first = new LossySocketBus(ports.get(0), ports);
+             LoopbackSocketInvalidationBus second = new LoopbackSocketInvalidationBus(ports.get(1), ports)) {
+            RecordingListener listener = new RecordingListener();
+            second.subscribe(listener);
+
+            first.publish("doctor", 1L, false);
+            await(() -> listener.changes.size() == 1);
+            first.dropNext = true;
+            first.publish("doctor", 2L, false);
+            first.publish("doctor", 3L, false);
+
+            await(() -> listener.refreshes.get() == 1);
+            assertThat(listener.changes).containsExactly("1");
+            assertThat(second.getStats()).containsEntry("gaps", 1L);
+        }
+    }
+
+    @Test
+    void keepsReceivingAndMergesChangesWhileAListenerIsBusy() throws Exception {
+        List<Integer> ports = freePorts(2);
+        try (LoopbackSocketInvalidationBus first = new LoopbackSocketInvalidationBus(ports.get(0), ports);
+             LoopbackSocketInvalidationBus second = new LoopbackSocketInvalidationBus(ports.get(1), ports)) {
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            RecordingListener listener = new RecordingListener() {
+                @Override
+                public void onChange(final Long id, final boolean deleted) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.onChange(id, deleted);
+                }
+            };
+            second.subscribe(listener);
+
+            first.publish("doctor", 5L, false);
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            for (long id : new long[] {6, 7, 6, 7, 6}) {
+                first.publish("doctor", id, false);
+            }
+            await(() -> second.getStats().get("received") == 6);
+            release.countDown();
+
+            await(() -> listener.changes.size() == 3);
+            Thread.sleep(100);
+            assertThat(listener.changes).containsExactly("5", "6", "7");
+            assertThat(second.getStats()).containsEntry("gaps", 0L);
+        }
+    }
+
+    @Test
+    void encodesAndDecodesEvents() {
+        InvalidationEvent change = new InvalidationEvent("node", 42, "doctor", 7L, true);
+        InvalidationEvent heartbeat = new InvalidationEvent("node", 42, "doctor", null, false);
+
+        assertThat(InvalidationEvent.decode(change.encode())).isEqualTo(change);
+        assertThat(InvalidationEvent.decode(heartbeat.encode())).isEqualTo(heartbeat);
+        assertThat(heartbeat.isHeartbeat()).isTrue();
+        assertThat(change.isHeartbeat()).isFalse();
+    }
+
+    private static final class LossyBus extends InProcessInvalidationBus {
+        private boolean dropNext;
+
+        private LossyBus(final Hub hub) {
+            super(hub);
+        }
+
+        @Override
+        protected void send(final InvalidationEvent event) {
+            if (dropNext) {
+                dropNext = false;
+                return;
+            }
+            super.send(event);
+        }
+    }
+
+    private static final class LossySocketBus extends LoopbackSocketInvalidationBus {
+        private volatile boolean dropNext;
+
+        private LossySocketBus(final int port, final List<Integer> peerPorts) throws SocketException {
+            super(port, peerPorts);
+        }
+
+        @Override
+        protected void send(final InvalidationEvent event) {
+            if (dropNext) {
+                dropNext = false;
+                return;
+            }
+            super.send(event);
+        }
+    }
+
+    /**
+     * Finds loopback UDP ports that are free right now
+     */
+    private static List<Integer> freePorts(final int count) throws SocketException {
+        List<DatagramSocket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                sockets.add(new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)));
+            }
+            return sockets.stream().map(DatagramSocket::getLocalPort).toList();
+        } finally {
+            sockets.forEach(DatagramSocket::close);
+        }
+    }
+
+    /**
+     * Waits up to five seconds for datagrams to be received and handled
+     */
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5 seconds").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingListener implements InvalidationListener {
+        private final String entity;
+        private final List<String> changes = new CopyOnWriteArrayList<>(); // Socket buses call listeners from their dispatcher thread
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        private RecordingListener() {
+            this("doctor");
+        }
+
+        private RecordingListener(final String entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public String entity() {
+            return entity;
+        }
+
+        @Override
+        public void onChange(final Long id, final boolean deleted) {
+            changes.add(deleted ? id + " deleted" : id.toString());
+        }
+
+        @Override
+        public void refreshAll() {
+            refreshes.incrementAndGet();
+        }
+    }
+}
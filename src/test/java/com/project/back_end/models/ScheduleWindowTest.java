@@ -0,0 +1,45 @@
+package com.project.back_end.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.util.List;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+
+class ScheduleWindowTest {
+
+    @Test
+    void expandsTheWindowsOfOneWeekdayIntoSortedSlots() {
+        List<ScheduleWindow> schedule = List.of(
+            new ScheduleWindow(DayOfWeek.MONDAY, 14 * 60, 15 * 60 + 30),
+            new ScheduleWindow(DayOfWeek.TUESDAY, 8 * 60, 9 * 60),
+            new ScheduleWindow(DayOfWeek.MONDAY, 9 * 60, 12 * 60));
+
+        assertThat(ScheduleWindow.expandSlots(schedule, 60, DayOfWeek.MONDAY)).containsExactly(540, 600, 660, 840);
+        assertThat(ScheduleWindow.expandSlots(schedule, 30, DayOfWeek.TUESDAY)).containsExactly(480, 510);
+        assertThat(ScheduleWindow.expandSlots(schedule, 60, DayOfWeek.SUNDAY)).isEmpty();
+    }
+
+    @Test
+    void formatsAndParsesSlotsInTheLegacyFormat() {
+        assertThat(ScheduleWindow.formatSlot(9 * 60, 60)).isEqualTo("09:00 - 10:00");
+        assertThat(ScheduleWindow.formatSlot(13 * 60 + 30, 45)).isEqualTo("13:30 - 14:15");
+        assertThat(ScheduleWindow.parseSlot("09:00 - 10:00")).containsExactly(540, 600);
+        assertThat(ScheduleWindow.parseSlot("13:30-14:15")).containsExactly(810, 855);
+    }
+
+    @Test
+    void legacyTimesBecomeMergedWindowsOnEveryWeekday() {
+        Doctor doctor = new Doctor();
+        doctor.setAvailableTimes(List.of("10:00 - 11:00", "09:00 - 10:00", "14:00 - 14:30"));
+
+        assertThat(doctor.getSlotMinutes()).isEqualTo(30);
+        assertThat(doctor.getSchedule()).hasSize(2 * 7);
+        assertThat(doctor.getSchedule()).filteredOn(window -> window.getDayOfWeek() == DayOfWeek.FRIDAY)
+            .extracting(ScheduleWindow::getStartMinute, ScheduleWindow::getEndMinute)
+            .containsExactly(Tuple.tuple(540, 660), Tuple.tuple(840, 870));
+        assertThat(doctor.getSlotPeriods()).isEqualTo(Doctor.MORNING | Doctor.AFTERNOON);
+    }
+}
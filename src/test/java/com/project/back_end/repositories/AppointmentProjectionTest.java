@@ -0,0 +1,160 @@
+package com.project.back_end.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.PatientAppointment;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.jakarta.persistence.validation.mode=none",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AppointmentProjectionTest {
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Doctor doctor;
+    private Doctor otherDoctor;
+    private Patient ada;
+    private Patient adam;
+    private Patient grace;
+
+    @BeforeEach
+    void setUp() {
+        doctor = persistDoctor(1, "Ada Doctor", "Cardiology");
+        otherDoctor = persistDoctor(2, "Grace Doctor", "Neurology");
+        ada = persistPatient(1, "Ada Lovelace");
+        adam = persistPatient(2, "ADAM Smith");
+        grace = persistPatient(3, "Grace Hopper");
+        persistAppointment(doctor, grace, DAY.atTime(11, 0), 0);
+        persistAppointment(doctor, ada, DAY.atTime(9, 0), 1);
+        persistAppointment(doctor, adam, DAY.atTime(10, 0), 0);
+        persistAppointment(doctor, ada, DAY.minusDays(1).atTime(23, 0), 1);
+        persistAppointment(doctor, ada, DAY.plusDays(1).atStartOfDay(), 0);
+        persistAppointment(otherDoctor, ada, DAY.atTime(9, 0), 0);
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void dayViewListsTheDoctorsDayInOneQueryWithoutEntities() {
+        List<AppointmentDTO> day = readOnce(() -> appointmentRepository.findDayViewByDoctorId(doctor.getId(), DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()));
+
+        assertThat(day).extracting(AppointmentDTO::getPatientName).containsExactly("Ada Lovelace", "ADAM Smith", "Grace Hopper");
+        AppointmentDTO first = day.get(0);
+        assertThat(first.getDoctorId()).isEqualTo(doctor.getId());
+        assertThat(first.getDoctorName()).isEqualTo("Ada Doctor");
+        assertThat(first.getPatientId()).isEqualTo(ada.getId());
+        assertThat(first.getPatientEmail()).isEqualTo("patient1@mail.com");
+        assertThat(first.getPatientPhone()).isEqualTo("2000000001");
+        assertThat(first.getPatientAddress()).isEqualTo("Side street");
+        assertThat(first.getAppointmentTime()).isEqualTo(DAY.atTime(9, 0));
+        assertThat(first.getEndTime()).isEqualTo(DAY.atTime(10, 0));
+        assertThat(first.getStatus()).isEqualTo(1);
+    }
+
+    @Test
+    void dayViewFiltersPatientNamesInTheQueryIgnoringCase() {
+        List<AppointmentDTO> day = readOnce(() -> appointmentRepository.findDayViewByDoctorIdAndPatientName(doctor.getId(), "aDa", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()));
+
+        assertThat(day).extracting(AppointmentDTO::getPatientName).containsExactly("Ada Lovelace", "ADAM Smith");
+        assertThat(appointmentRepository.findDayViewByDoctorIdAndPatientName(doctor.getId(), "hopper", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()))
+            .extracting(AppointmentDTO::getPatientName).containsExactly("Grace Hopper");
+        assertThat(appointmentRepository.findDayViewByDoctorIdAndPatientName(otherDoctor.getId(), "grace", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())).isEmpty();
+    }
+
+    @Test
+    void patientHistoryCarriesTheDoctorsNameAndSpecialtyInOneQuery() {
+        List<PatientAppointment> history = readOnce(() -> appointmentRepository.findByPatientId(ada.getId()));
+
+        assertThat(history).extracting(PatientAppointment::appointmentTime)
+            .containsExactly(DAY.minusDays(1).atTime(23, 0), DAY.atTime(9, 0), DAY.atTime(9, 0), DAY.plusDays(1).atStartOfDay());
+        assertThat(history).allSatisfy(appointment -> assertThat(appointment.patientId()).isEqualTo(ada.getId()));
+        assertThat(history).extracting(PatientAppointment::doctorName, PatientAppointment::doctorSpecialty)
+            .contains(tuple("Ada Doctor", "Cardiology"), tuple("Grace Doctor", "Neurology"));
+        assertThat(history.get(0).reasonForVisit()).isEqualTo("Checkup at 23:00");
+    }
+
+    @Test
+    void patientHistoryFiltersByStatusAndDoctorNameInOneQuery() {
+        assertThat(readOnce(() -> appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(ada.getId(), 1)))
+            .extracting(PatientAppointment::appointmentTime).containsExactly(DAY.minusDays(1).atTime(23, 0), DAY.atTime(9, 0));
+        assertThat(readOnce(() -> appointmentRepository.findByDoctorNameAndPatientId("GRACE", ada.getId())))
+            .extracting(PatientAppointment::doctorId).containsExactly(otherDoctor.getId());
+        assertThat(readOnce(() -> appointmentRepository.filterByDoctorNameAndPatientIdAndStatus("ada", ada.getId(), 0)))
+            .extracting(PatientAppointment::appointmentTime).containsExactly(DAY.plusDays(1).atStartOfDay());
+        assertThat(readOnce(() -> appointmentRepository.findByDoctorNameAndPatientId("ada", grace.getId())))
+            .extracting(PatientAppointment::appointmentTime).containsExactly(DAY.atTime(11, 0));
+    }
+
+    /**
+     * Runs a read and checks that it took one statement and loaded no entities
+     */
+    private <T> List<T> readOnce(final Supplier<List<T>> read) {
+        statistics.clear();
+        List<T> rows = read.get();
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).as("entities loaded").isZero();
+        return rows;
+    }
+
+    private Doctor persistDoctor(final int n, final String name, final String specialty) {
+        Doctor doctor = new Doctor();
+        doctor.setName(name);
+        doctor.setSpecialty(specialty);
+        doctor.setEmail("doctor" + n + "@clinic.com");
+        doctor.setPassword("secret");
+        doctor.setPhone(String.format("1%09d", n));
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Patient persistPatient(final int n, final String name) {
+        Patient patient = new Patient();
+        patient.setName(name);
+        patient.setEmail("patient" + n + "@mail.com");
+        patient.setPassword("secret");
+        patient.setPhone(String.format("2%09d", n));
+        patient.setAddress("Side street");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setEmergencyContact("Someone");
+        patient.setInsuranceProvider("Insurer");
+        entityManager.persist(patient);
+        return patient;
+    }
+
+    private void persistAppointment(final Doctor doctor, final Patient patient, final LocalDateTime time, final int status) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(status);
+        appointment.setReasonForVisit("Checkup at " + time.toLocalTime());
+        entityManager.persist(appointment);
+    }
+}
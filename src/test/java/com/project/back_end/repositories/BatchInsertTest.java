@@ -0,0 +1,77 @@
+package com.project.back_end.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.jakarta.persistence.validation.mode=none",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BatchInsertTest {
+    private static final int ROWS = 120;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void appointmentInsertsAreSentInBatches() {
+        Doctor doctor = persistDoctor();
+        Patient patient = persistPatient();
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(8, 0);
+        for (int row = 0; row < ROWS; row++) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentTime(start.plusHours(row));
+            entityManager.persist(appointment);
+        }
+        entityManager.flush();
+
+        // One statement per batch of 50 plus the ID block reservations, instead of one per row
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+    }
+
+    private Doctor persistDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Doctor");
+        doctor.setSpecialty("Cardiology");
+        doctor.setEmail("doctor@clinic.com");
+        doctor.setPassword("secret");
+        doctor.setPhone("1000000000");
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Patient persistPatient() {
+        Patient patient = new Patient();
+        patient.setName("Patient");
+        patient.setEmail("patient@mail.com");
+        patient.setPassword("secret");
+        patient.setPhone("2000000000");
+        patient.setAddress("Side street");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setEmergencyContact("Someone");
+        patient.setInsuranceProvider("Insurer");
+        entityManager.persist(patient);
+        return patient;
+    }
+}
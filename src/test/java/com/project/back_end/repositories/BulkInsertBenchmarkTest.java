@@ -0,0 +1,136 @@
+package com.project.back_end.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.benchmark.IdentityAppointment;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Compares bulk appointment inserts with pooled IDs and JDBC batching against one round trip per row with IDENTITY columns.
+ * Run with: mvn test -Dtest=BulkInsertBenchmarkTest -Dbenchmark=true
+ * The embedded database has no network round trips, so the gain against a real MySQL server is larger than reported here.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.jakarta.persistence.validation.mode=none")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkInsertBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(BulkInsertBenchmarkTest.class);
+    private static final int ROWS = 100_000;
+    private static final int WARM_UP_ROWS = 5_000;
+    private static final int DOCTORS = 100;
+    private static final int PATIENTS = 1_000;
+    private static final int BATCH_SIZE = 50;
+    private static final LocalDateTime START = LocalDate.now().plusDays(1).atTime(8, 0);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void pooledIdsInsertFasterThanIdentity() {
+        List<Doctor> doctors = new ArrayList<>();
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(persistDoctor(i));
+        }
+        for (int i = 0; i < PATIENTS; i++) {
+            patients.add(persistPatient(i));
+        }
+        entityManager.flush();
+
+        Consumer<Integer> pooled = row -> {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctors.get(row % DOCTORS));
+            appointment.setPatient(patients.get(row % PATIENTS));
+            appointment.setAppointmentTime(START.plusHours(row / DOCTORS));
+            entityManager.persist(appointment);
+        };
+        Consumer<Integer> identity = row -> entityManager.persist(
+            new IdentityAppointment(doctors.get(row % DOCTORS), patients.get(row % PATIENTS), START.plusHours(row / DOCTORS)));
+
+        load(identity, ROWS, WARM_UP_ROWS, doctors, patients);
+        load(pooled, ROWS, WARM_UP_ROWS, doctors, patients);
+        double identityRate = load(identity, 0, ROWS, doctors, patients);
+        double pooledRate = load(pooled, 0, ROWS, doctors, patients);
+
+        log.info("Inserted {} appointments: IDENTITY {} rows/s, pooled IDs with batching {} rows/s ({}x)",
+            ROWS, Math.round(identityRate), Math.round(pooledRate), String.format("%.1f", pooledRate / identityRate));
+        assertThat(pooledRate).isGreaterThan(identityRate);
+        assertThat(entityManager.createQuery("SELECT COUNT(a) FROM Appointment a", Long.class).getSingleResult()).isEqualTo(ROWS + WARM_UP_ROWS);
+    }
+
+    /**
+     * Persists rows, flushing and clearing the persistence context once per batch
+     * @return Rows inserted per second
+     */
+    private double load(final Consumer<Integer> insert, final int from, final int count, final List<Doctor> doctors, final List<Patient> patients) {
+        long startedAt = System.nanoTime();
+        for (int row = from; row < from + count; row++) {
+            insert.accept(row);
+            if ((row + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                reattach(doctors, patients);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        reattach(doctors, patients);
+        return count / ((System.nanoTime() - startedAt) / 1e9);
+    }
+
+    private void reattach(final List<Doctor> doctors, final List<Patient> patients) {
+        doctors.replaceAll(doctor -> entityManager.getReference(Doctor.class, doctor.getId()));
+        patients.replaceAll(patient -> entityManager.getReference(Patient.class, patient.getId()));
+    }
+
+    private Doctor persistDoctor(final int i) {
+        Doctor doctor = new Doctor();
+        doctor.setName("Doctor " + i);
+        doctor.setSpecialty("Cardiology");
+        doctor.setEmail("doctor" + i + "@clinic.com");
+        doctor.setPassword("secret");
+        doctor.setPhone(String.format("1%09d", i));
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Patient persistPatient(final int i) {
+        Patient patient = new Patient();
+        patient.setName("Patient " + i);
+        patient.setEmail("patient" + i + "@mail.com");
+        patient.setPassword("secret");
+        patient.setPhone(String.format("2%09d", i));
+        patient.setAddress("Side street");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setEmergencyContact("Someone");
+        patient.setInsuranceProvider("Insurer");
+        entityManager.persist(patient);
+        return patient;
+    }
+
+    /**
+     * Maps the baseline entity next to the application's models, for this test's context only
+     */
+    @TestConfiguration
+    @EntityScan(basePackageClasses = {Appointment.class, IdentityAppointment.class})
+    static class BenchmarkEntities {
+    }
+}
@@ -0,0 +1,253 @@
+package com.project.back_end.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.DTO.DailyReportRow;
+import com.project.back_end.DTO.PatientAppointment;
+
+/**
+ * Runs the repository queries against an in-memory H2 database filled with synthetic rows and checks their EXPLAIN plans.
+ * Every hot query must reach its rows through an index; a table scan anywhere in its plan fails the build.
+ * Every @Query method must either be listed as hot or be exempted with a reason, so new queries cannot skip the check.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:query-plans;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.project.back_end.repositories.QueryPlanTest$CapturedSql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+    private static final int DOCTORS = 200;
+    private static final int PATIENTS = 1000;
+    private static final int APPOINTMENTS = 10000;
+    private static final int REVOKED_TOKENS = 1000;
+    private static final String[] SPECIALTIES = {"Cardiology", "Dermatology", "Neurology", "Pediatrics", "Oncology", "Orthopedics", "Psychiatry", "Radiology", "Urology", "Surgery"};
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(30).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    // Queries that read a whole table by design, so a scan is the right plan
+    private static final Map<String, String> FULL_SCANS = Map.of(
+        "DoctorRepository.findAllWithSchedule", "loads every doctor for the in-memory directory",
+        "DoctorRepository.streamAllOrderById", "streams every doctor for the NDJSON export",
+        "DoctorRepository.findPageOrderById", "first page reads the table in key order and stops at the limit",
+        "DoctorRepository.findPageOrderByName", "first page reads the name index in order and stops at the limit",
+        "DoctorRepository.findByNameLike", "a leading wildcard cannot use an index; name searches are served by the search index",
+        "RevokedTokenRepository.findUnexpired", "loads every live revocation at startup; compaction keeps expired rows out of the table"
+    );
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorMonthlyCountRepository monthlyCountRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @BeforeAll
+    void loadSyntheticData() {
+        transaction = new TransactionTemplate(transactionManager);
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO doctor (id, name, name_key, specialty, specialty_key, email, password, phone, slot_minutes, slot_periods, years_of_experience, clinic_address, rating) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 60, ?, 5, 'Main street', 3)",
+            IntStream.rangeClosed(1, DOCTORS).mapToObj(id -> new Object[] {
+                id, "Doctor " + id, "doctor " + id, SPECIALTIES[id % SPECIALTIES.length], SPECIALTIES[id % SPECIALTIES.length].toLowerCase(), "doctor" + id + "@clinic.com", "secret", String.format("1%09d", id), 1 + id % 3
+            }).toList());
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO doctor_schedule (doctor_id, day_of_week, start_minute, end_minute) VALUES (?, ?, 540, 1020)",
+            IntStream.rangeClosed(1, DOCTORS * 5).mapToObj(row -> new Object[] {1 + (row - 1) / 5, (row - 1) % 5}).toList());
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO patient (id, name, email, password, phone, address, date_of_birth, emergency_contact, insurance_provider) VALUES (?, ?, ?, 'secret', ?, 'Side street', DATE '1990-01-01', 'Someone', 'Insurer')",
+            IntStream.rangeClosed(1, PATIENTS).mapToObj(id -> new Object[] {id, "Patient " + id, "patient" + id + "@mail.com", String.format("2%09d", id)}).toList());
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status, reason_for_visit, pharmacy_name) VALUES (?, ?, ?, ?, ?, 'Checkup', 'Pharmacy')",
+            IntStream.rangeClosed(1, APPOINTMENTS).mapToObj(id -> new Object[] {
+                id, 1 + id % DOCTORS, 1 + (id * 7) % PATIENTS, Timestamp.valueOf(START.plusHours(id / DOCTORS)), id % 2
+            }).toList());
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO doctor_monthly_count (doctor_id, month_key, patients_seen) VALUES (?, ?, ?)",
+            IntStream.range(0, DOCTORS * 12).mapToObj(row -> new Object[] {1 + row / 12, 202501 + row % 12, row % 40}).toList());
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO revoked_token (id, digest, revoked_at, expires_at) VALUES (?, ?, ?, ?)",
+            IntStream.rangeClosed(1, REVOKED_TOKENS).mapToObj(id -> new Object[] {id, "digest-" + id, System.currentTimeMillis() - id * 60_000L, System.currentTimeMillis() + id * 60_000L}).toList());
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    Stream<Arguments> hotQueries() {
+        final LocalDateTime end = START.plusDays(1);
+        final PageRequest page = PageRequest.of(0, 20);
+        final List<Long> ids = List.of(1L, 2L, 3L);
+        return Stream.of(
+            hot("AppointmentRepository.findByDoctorIdAndAppointmentTimeBetween", () -> appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(1L, START, end)),
+            hot("AppointmentRepository.findAppointmentTimesByDoctorIdBetween", () -> appointmentRepository.findAppointmentTimesByDoctorIdBetween(1L, START, end)),
+            hot("AppointmentRepository.findDoctorIdAndAppointmentTimeBetween", () -> appointmentRepository.findDoctorIdAndAppointmentTimeBetween(START, end)),
+            hot("AppointmentRepository.findDoctorIdAndAppointmentTimeByDoctorIdInBetween", () -> appointmentRepository.findDoctorIdAndAppointmentTimeByDoctorIdInBetween(ids, START, end)),
+            hot("AppointmentRepository.findDayViewByDoctorId", () -> appointmentRepository.findDayViewByDoctorId(1L, START, end)),
+            hot("AppointmentRepository.findDayViewByDoctorIdAndPatientName", () -> appointmentRepository.findDayViewByDoctorIdAndPatientName(1L, "patient", START, end)),
+            hot("AppointmentRepository.countByDoctorIdBetween", () -> appointmentRepository.countByDoctorIdBetween(START, end)),
+            hot("AppointmentRepository.streamDailyReport", () -> transaction.executeWithoutResult(status -> {
+                try (Stream<DailyReportRow> rows = appointmentRepository.streamDailyReport(START, end)) {
+                    rows.forEach(row -> { });
+                }
+            })),
+            hot("AppointmentRepository.deleteAllByDoctorId", () -> appointmentRepository.deleteAllByDoctorId(-1L)),
+            hot("AppointmentRepository.findByPatientId", () -> appointmentRepository.findByPatientId(1L)),
+            hot("AppointmentRepository.streamByPatientId", () -> transaction.executeWithoutResult(status -> {
+                try (Stream<PatientAppointment> rows = appointmentRepository.streamByPatientId(1L)) {
+                    rows.forEach(row -> { });
+                }
+            })),
+            hot("AppointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc", () -> appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(1L, 0)),
+            hot("AppointmentRepository.findByDoctorNameAndPatientId", () -> appointmentRepository.findByDoctorNameAndPatientId("doctor", 1L)),
+            hot("AppointmentRepository.filterByDoctorNameAndPatientIdAndStatus", () -> appointmentRepository.filterByDoctorNameAndPatientIdAndStatus("doctor", 1L, 0)),
+            hot("DoctorRepository.findByEmail", () -> doctorRepository.findByEmail("doctor1@clinic.com")),
+            hot("DoctorRepository.findWithScheduleById", () -> doctorRepository.findWithScheduleById(1L)),
+            hot("DoctorRepository.findAllWithScheduleByIdIn", () -> doctorRepository.findAllWithScheduleByIdIn(ids)),
+            hot("DoctorRepository.findPageAfterIdOrderById", () -> doctorRepository.findPageAfterIdOrderById(100L, page)),
+            hot("DoctorRepository.findPageAfterNameOrderByName", () -> doctorRepository.findPageAfterNameOrderByName("doctor 100", 100L, page)),
+            hot("DoctorRepository.findAllWithoutNameKey", () -> doctorRepository.findAllWithoutNameKey()),
+            hot("DoctorRepository.findAllWithScheduleAndNoSlotPeriods", () -> doctorRepository.findAllWithScheduleAndNoSlotPeriods()),
+            hot("DoctorRepository.findSchedulesByDoctorIdIn", () -> doctorRepository.findSchedulesByDoctorIdIn(ids)),
+            hot("DoctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase", () -> doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase("doctor", "cardiology")),
+            hot("DoctorRepository.findBySpecialtyIgnoreCase", () -> doctorRepository.findBySpecialtyIgnoreCase("cardiology")),
+            hot("DoctorMonthlyCountRepository.add", () -> transaction.executeWithoutResult(status -> monthlyCountRepository.add(1L, 202501, 1))),
+            hot("DoctorMonthlyCountRepository.subtract", () -> transaction.executeWithoutResult(status -> monthlyCountRepository.subtract(1L, 202501, 1))),
+            hot("DoctorMonthlyCountRepository.set", () -> transaction.executeWithoutResult(status -> monthlyCountRepository.set(1L, 202501, 5))),
+            hot("DoctorMonthlyCountRepository.findTopByMonthKey", () -> monthlyCountRepository.findTopByMonthKey(202501, PageRequest.of(0, 10))),
+            hot("DoctorMonthlyCountRepository.findByMonthKey", () -> monthlyCountRepository.findByMonthKey(202501)),
+            hot("DoctorMonthlyCountRepository.deleteAllByDoctorId", () -> monthlyCountRepository.deleteAllByDoctorId(-1L)),
+            hot("PatientRepository.findByEmail", () -> patientRepository.findByEmail("patient1@mail.com")),
+            hot("PatientRepository.isEmailOrPhoneTaken", () -> patientRepository.isEmailOrPhoneTaken("nobody@mail.com", "0000000000")),
+            hot("RevokedTokenRepository.findRevokedSince", () -> revokedTokenRepository.findRevokedSince(System.currentTimeMillis() - 60_000L)),
+            hot("RevokedTokenRepository.deleteExpired", () -> revokedTokenRepository.deleteExpired(0L))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesAnIndex(final String query, final Runnable call) {
+        CapturedSql.statements.clear();
+        call.run();
+
+        assertThat(CapturedSql.statements).as("SQL issued by %s", query).isNotEmpty();
+        for (String sql : CapturedSql.statements) {
+            final String plan = explain(sql);
+            assertThat(plan).as("Plan of %s:%n%s", query, plan).doesNotContain(".tableScan");
+        }
+    }
+
+    @Test
+    void specialtyFiltersIgnoreCase() {
+        final int cardiologists = DOCTORS / SPECIALTIES.length;
+        assertThat(doctorRepository.findBySpecialtyIgnoreCase("cARDIOLOGY")).hasSize(cardiologists);
+        assertThat(doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase("DOCTOR", "cardiology")).hasSize(cardiologists);
+    }
+
+    @Test
+    void everyQueryIsCheckedOrExempted() {
+        final List<String> checked = hotQueries().map(arguments -> (String) arguments.get()[0]).toList();
+        final List<String> unchecked = new ArrayList<>();
+        for (Class<?> repository : List.of(AppointmentRepository.class, DoctorRepository.class, PatientRepository.class, DoctorMonthlyCountRepository.class, RevokedTokenRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(Query.class))
+                .map(method -> repository.getSimpleName() + "." + method.getName())
+                .filter(name -> !checked.contains(name) && !FULL_SCANS.containsKey(name))
+                .forEach(unchecked::add);
+        }
+
+        assertThat(unchecked).as("@Query methods without a plan check or a documented full scan").isEmpty();
+    }
+
+    private static Arguments hot(final String query, final Runnable call) {
+        return Arguments.of(query, call);
+    }
+
+    /**
+     * Explains a captured statement. The plan does not depend on the values, so every parameter is bound to null.
+     * @param sql Statement as issued by Hibernate
+     * @return Plan of the statement
+     */
+    private String explain(final String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            final int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                final StringBuilder text = new StringBuilder();
+                while (plan.next()) {
+                    text.append(plan.getString(1)).append('\n');
+                }
+                return text.toString();
+            }
+        } catch (SQLException error) {
+            throw new IllegalStateException("Cannot explain " + sql, error);
+        }
+    }
+
+    /**
+     * Records every statement Hibernate prepares, so the test can explain exactly what a repository method ran
+     */
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(final String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
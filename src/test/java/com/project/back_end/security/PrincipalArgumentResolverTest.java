@@ -0,0 +1,89 @@
+package com.project.back_end.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.project.back_end.services.TokenService;
+
+class PrincipalArgumentResolverTest {
+    private TokenService tokenService;
+    private PrincipalArgumentResolver resolver;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = mock(TokenService.class);
+        resolver = new PrincipalArgumentResolver(tokenService);
+        request = new MockHttpServletRequest();
+    }
+
+    @Test
+    void resolvesEachPrincipalOncePerRequest() throws Exception {
+        AuthPrincipal principal = new AuthPrincipal("patient", 7L, "ada@example.com", (Object) null);
+        when(tokenService.resolvePrincipal("path-token", "patient")).thenReturn(principal);
+        pathVariables(Map.of("user", "patient", "token", "path-token"));
+
+        assertThat(resolve("fromPath")).isSameAs(principal);
+        assertThat(resolve("fromPath")).isSameAs(principal);
+        verify(tokenService, times(1)).resolvePrincipal("path-token", "patient");
+    }
+
+    @Test
+    void fallsBackToTheBearerToken() throws Exception {
+        AuthPrincipal principal = new AuthPrincipal("doctor", 3L, "grace@example.com", (Object) null);
+        when(tokenService.resolvePrincipal("bearer-token", "doctor")).thenReturn(principal);
+        request.setAttribute(BearerTokenFilter.TOKEN_ATTRIBUTE, "bearer-token");
+
+        assertThat(resolve("doctor")).isSameAs(principal);
+    }
+
+    @Test
+    void rejectedTokensAreRememberedAsNoPrincipal() throws Exception {
+        request.setAttribute(BearerTokenFilter.TOKEN_ATTRIBUTE, "patient-token");
+
+        assertThat(resolve("doctor")).isNull();
+        assertThat(resolve("doctor")).isNull();
+        verify(tokenService, times(1)).resolvePrincipal(anyString(), anyString());
+    }
+
+    @Test
+    void noTokenMeansNoPrincipal() throws Exception {
+        assertThat(resolve("doctor")).isNull();
+        verify(tokenService, never()).resolvePrincipal(anyString(), anyString());
+    }
+
+    private void pathVariables(final Map<String, String> variables) {
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, variables);
+    }
+
+    private Object resolve(final String handlerMethod) throws Exception {
+        MethodParameter parameter = new MethodParameter(Handlers.class.getDeclaredMethod(handlerMethod, AuthPrincipal.class), 0);
+        assertThat(resolver.supportsParameter(parameter)).isTrue();
+        NativeWebRequest webRequest = new ServletWebRequest(request);
+        return resolver.resolveArgument(parameter, null, webRequest, null);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handlers {
+        void fromPath(@CurrentPrincipal final AuthPrincipal principal) {
+        }
+
+        void doctor(@CurrentPrincipal("doctor") final AuthPrincipal principal) {
+        }
+    }
+}
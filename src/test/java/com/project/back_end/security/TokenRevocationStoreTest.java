@@ -0,0 +1,126 @@
+package com.project.back_end.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.back_end.invalidation.InvalidationBus;
+import com.project.back_end.models.RevokedToken;
+import com.project.back_end.repositories.RevokedTokenRepository;
+
+class TokenRevocationStoreTest {
+    private static final long HOUR = 3_600_000L;
+
+    private RevokedTokenRepository repository;
+    private InvalidationBus bus;
+    private TokenRevocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RevokedTokenRepository.class);
+        bus = mock(InvalidationBus.class);
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        store = new TokenRevocationStore(repository, bus);
+        ReflectionTestUtils.setField(store, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.001);
+        store.init();
+    }
+
+    @Test
+    void revokedTokensAreRejectedAndAnnounced() {
+        store.revoke(digest(1), System.currentTimeMillis() + HOUR);
+
+        assertThat(store.isRevoked(digest(1))).isTrue();
+        assertThat(store.isRevoked(digest(2))).isFalse();
+        verify(bus).publish(eq("revoked-token"), any(), eq(false));
+    }
+
+    @Test
+    void expiredTokensAreNotKept() {
+        store.revoke(digest(1), System.currentTimeMillis() - 1);
+
+        assertThat(store.isRevoked(digest(1))).isFalse();
+        assertThat(store.getStats()).containsEntry("revoked", 0L);
+    }
+
+    @Test
+    void pollingPicksUpRevocationsOfOtherNodes() {
+        long now = System.currentTimeMillis();
+        when(repository.findRevokedSince(anyLong())).thenReturn(List.of(new RevokedToken(digest(3), now, now + HOUR)));
+
+        store.poll();
+
+        assertThat(store.isRevoked(digest(3))).isTrue();
+    }
+
+    @Test
+    void aFailedPollIsRetriedFromTheSameTime() {
+        when(repository.findRevokedSince(anyLong())).thenThrow(new IllegalStateException("database down")).thenReturn(List.of());
+
+        store.poll();
+        store.poll();
+
+        ArgumentCaptor<Long> since = ArgumentCaptor.forClass(Long.class);
+        verify(repository, times(2)).findRevokedSince(since.capture());
+        assertThat(since.getAllValues().get(1)).isEqualTo(since.getAllValues().get(0));
+    }
+
+    @Test
+    void revocationsDuringRebuildsAreNeverLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        AtomicBoolean revoking = new AtomicBoolean(true);
+        try {
+            Future<?> compactor = executor.submit(() -> {
+                while (revoking.get()) store.compact();
+            });
+            List<Future<?>> revokers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int first = thread * 1000;
+                revokers.add(executor.submit(() -> {
+                    for (int i = first; i < first + 1000; i++) {
+                        store.revoke(digest(i), System.currentTimeMillis() + HOUR);
+                    }
+                }));
+            }
+            for (Future<?> revoker : revokers) revoker.get(30, TimeUnit.SECONDS);
+            revoking.set(false);
+            compactor.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < 4000; i++) {
+            assertThat(store.isRevoked(digest(i))).as("token %d", i).isTrue();
+        }
+    }
+
+    private static String digest(final int n) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(("token-" + n).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.controllers.AppointmentController;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+import com.project.back_end.repositories.PatientRepository;
+import com.project.back_end.security.AuthPrincipal;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Books against a real database where another instance already took the slot, so only the unique constraint on
+ * (doctor_id, appointment_time) stands between the request and a double booking.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.jakarta.persistence.validation.mode=none")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentBookingConstraintTest {
+    private static final long DOCTOR_ID = 1L;
+    private static final long PATIENT_ID = 1L;
+    private static final long OTHER_PATIENT_ID = 2L;
+    private static final LocalDateTime SLOT = LocalDate.now().plusDays(7).atTime(10, 0);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SlotHoldService slotHolds;
+    private SlotIndex slotIndex;
+    private AppointmentService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO doctor (id, name, specialty, email, password, phone, slot_minutes, slot_periods, years_of_experience, clinic_address, rating) "
+            + "VALUES (?, 'Doctor 1', 'cardiology', 'doctor1@clinic.com', 'secret', '1000000001', 60, 1, 5, 'Main street', 3)", DOCTOR_ID);
+        for (int day = 0; day < 7; day++) {
+            jdbcTemplate.update("INSERT INTO doctor_schedule (doctor_id, day_of_week, start_minute, end_minute) VALUES (?, ?, 540, 720)", DOCTOR_ID, day);
+        }
+        for (long id : new long[] {PATIENT_ID, OTHER_PATIENT_ID}) {
+            jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address, date_of_birth, emergency_contact, insurance_provider) "
+                + "VALUES (?, ?, ?, 'secret', ?, 'Side street', DATE '1990-01-01', 'Someone', 'Insurer')", id, "Patient " + id, "patient" + id + "@mail.com", "200000000" + id);
+        }
+
+        slotHolds = new SlotHoldService(300);
+        BookingLocks bookingLocks = new BookingLocks(64);
+        slotIndex = new SlotIndex(doctorRepository, appointmentRepository, slotHolds, bookingLocks);
+        service = new AppointmentService(appointmentRepository, slotIndex, bookingLocks, slotHolds,
+            mock(MonthlyPatientCounts.class), new TransactionTemplate(transactionManager), entityManager, mock(BookingEvents.class));
+
+        // This node loads the free day, then another instance books the slot behind its back
+        assertThat(slotIndex.isAvailable(DOCTOR_ID, SLOT, PATIENT_ID)).isTrue();
+        jdbcTemplate.update("INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status) VALUES (1000, ?, ?, ?, 0)",
+            DOCTOR_ID, OTHER_PATIENT_ID, Timestamp.valueOf(SLOT));
+    }
+
+    @AfterEach
+    void tearDown() {
+        slotHolds.close();
+        jdbcTemplate.update("DELETE FROM appointment");
+        jdbcTemplate.update("DELETE FROM doctor_schedule");
+        jdbcTemplate.update("DELETE FROM doctor");
+        jdbcTemplate.update("DELETE FROM patient");
+    }
+
+    @Test
+    void serviceReportsSlotTakenWhenTheConstraintRejectsTheInsert() {
+        assertThat(service.bookAppointment(appointment(), PATIENT_ID)).isEqualTo(-1);
+        assertThat(bookedRows()).isEqualTo(1);
+    }
+
+    @Test
+    void controllerAnswersConflictWhenTheConstraintRejectsTheInsert() {
+        ClinicService clinicService = mock(ClinicService.class);
+        when(clinicService.validateAppointment(any(), anyLong())).thenReturn(1);
+        AuthPrincipal patient = mock(AuthPrincipal.class);
+        when(patient.getId()).thenReturn(PATIENT_ID);
+
+        ResponseEntity<Map<String, String>> response = new AppointmentController(service, clinicService).bookAppointment(patient, appointment());
+
+        assertThat(response.getStatusCode().value()).isEqualTo(409);
+        assertThat(bookedRows()).isEqualTo(1);
+    }
+
+    private Appointment appointment() {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctorRepository.findById(DOCTOR_ID).orElseThrow());
+        appointment.setPatient(patientRepository.findById(PATIENT_ID).orElseThrow());
+        appointment.setAppointmentTime(SLOT);
+        return appointment;
+    }
+
+    private Integer bookedRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment WHERE doctor_id = ? AND appointment_time = ?", Integer.class, DOCTOR_ID, Timestamp.valueOf(SLOT));
+    }
+}
@@ -0,0 +1,112 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.DTO.AppointmentSeries;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+import com.project.back_end.security.AuthPrincipal;
+
+import jakarta.persistence.EntityManager;
+
+class AppointmentSeriesTest {
+    private static final long DOCTOR_ID = 1L;
+    private static final long PATIENT_ID = 42L;
+    private static final LocalDateTime FIRST_TUESDAY = LocalDate.now().plusDays(1).with(TemporalAdjusters.next(DayOfWeek.TUESDAY)).atTime(10, 0);
+
+    private AppointmentRepository appointmentRepository;
+    private MonthlyPatientCounts monthlyCounts;
+    private SlotHoldService slotHolds;
+    private AppointmentService service;
+    private AuthPrincipal patient;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        DoctorRepository doctorRepository = mock(DoctorRepository.class);
+        Doctor doctor = mock(Doctor.class);
+        when(doctor.getId()).thenReturn(DOCTOR_ID);
+        when(doctor.getSchedule()).thenReturn(List.of(new ScheduleWindow(DayOfWeek.TUESDAY, 9 * 60, 12 * 60)));
+        when(doctor.getSlotMinutes()).thenReturn(60);
+        when(doctorRepository.findWithScheduleById(DOCTOR_ID)).thenReturn(doctor);
+
+        monthlyCounts = mock(MonthlyPatientCounts.class);
+        slotHolds = new SlotHoldService(300);
+        BookingLocks bookingLocks = new BookingLocks(64);
+        service = new AppointmentService(appointmentRepository, new SlotIndex(doctorRepository, appointmentRepository, slotHolds, bookingLocks), bookingLocks, slotHolds,
+            monthlyCounts, new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(EntityManager.class), mock(BookingEvents.class));
+        patient = mock(AuthPrincipal.class);
+        when(patient.getId()).thenReturn(PATIENT_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slotHolds.close();
+    }
+
+    @Test
+    void booksEveryOccurrenceInOneBatchAfterOneRangeQuery() {
+        when(appointmentRepository.findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any())).thenReturn(List.of());
+
+        ResponseEntity<Map<String, Object>> response = service.bookSeries(new AppointmentSeries(DOCTOR_ID, FIRST_TUESDAY, 7, 12, "Follow-up"), patient);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(201);
+        assertThat((List<?>) response.getBody().get("booked")).hasSize(12);
+        assertThat((List<?>) response.getBody().get("conflicts")).isEmpty();
+        verify(appointmentRepository, times(1)).findAppointmentTimesByDoctorIdBetween(eq(DOCTOR_ID), any(), any());
+        verify(appointmentRepository, times(1)).saveAll(anyCollection());
+        verify(monthlyCounts).recordBooked(eq(DOCTOR_ID), anyCollection());
+    }
+
+    @Test
+    void booksNothingWhenAnyOccurrenceConflicts() {
+        LocalDateTime taken = FIRST_TUESDAY.plusWeeks(3);
+        when(appointmentRepository.findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any())).thenReturn(List.of(taken));
+        LocalDateTime afternoon = FIRST_TUESDAY.plusWeeks(5).withHour(15);
+
+        ResponseEntity<Map<String, Object>> response = service.bookSeries(new AppointmentSeries(DOCTOR_ID, FIRST_TUESDAY, 7, 12, "Follow-up"), patient);
+        ResponseEntity<Map<String, Object>> offHours = service.bookSeries(new AppointmentSeries(DOCTOR_ID, afternoon, 7, 2, null), patient);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(409);
+        assertThat((List<?>) response.getBody().get("booked")).isEmpty();
+        assertThat(response.getBody().get("conflicts")).asInstanceOf(InstanceOfAssertFactories.LIST).containsExactly(Map.of("appointmentTime", taken.toString(), "reason", "Already booked"));
+        assertThat(offHours.getStatusCode().value()).isEqualTo(409);
+        assertThat((List<?>) offHours.getBody().get("conflicts")).hasSize(2);
+        verify(appointmentRepository, never()).saveAll(anyCollection());
+        verify(monthlyCounts, never()).recordBooked(anyLong(), anyCollection());
+    }
+
+    @Test
+    void rejectsSeriesLongerThanOneBatch() {
+        ResponseEntity<Map<String, Object>> response = service.bookSeries(new AppointmentSeries(DOCTOR_ID, FIRST_TUESDAY, 7, 51, null), patient);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        verify(appointmentRepository, never()).saveAll(anyCollection());
+    }
+}
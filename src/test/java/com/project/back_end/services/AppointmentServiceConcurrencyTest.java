@@ -0,0 +1,129 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+import jakarta.persistence.EntityManager;
+
+class AppointmentServiceConcurrencyTest {
+    private static final int DOCTORS = 20;
+    private static final int SLOTS_PER_DAY = 8;
+    private static final int BOOKINGS = 5000;
+    private static final int THREADS = 32;
+
+    @Test
+    void parallelBookingsNeverDoubleBookASlot() throws Exception {
+        // The fake table does not enforce uniqueness, so any duplicate would come from the service itself
+        List<Appointment> table = Collections.synchronizedList(new ArrayList<>());
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        DoctorRepository doctorRepository = mock(DoctorRepository.class);
+
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenAnswer(invocation -> {
+            Appointment appointment = invocation.getArgument(0);
+            Thread.yield(); // widen the window between the availability check and the insert
+            table.add(appointment);
+            return appointment;
+        });
+        when(appointmentRepository.findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any())).thenAnswer(invocation -> {
+            Long doctorId = invocation.getArgument(0);
+            LocalDateTime start = invocation.getArgument(1);
+            LocalDateTime end = invocation.getArgument(2);
+            synchronized (table) {
+                return table.stream()
+                    .filter(appointment -> appointment.getDoctor().getId().equals(doctorId))
+                    .map(Appointment::getAppointmentTime)
+                    .filter(time -> !time.isBefore(start) && time.isBefore(end))
+                    .toList();
+            }
+        });
+
+        List<Doctor> doctors = new ArrayList<>();
+        for (long id = 1; id <= DOCTORS; id++) {
+            Doctor doctor = doctor(id);
+            doctors.add(doctor);
+            when(doctorRepository.findWithScheduleById(id)).thenReturn(doctor);
+        }
+
+        SlotHoldService slotHolds = new SlotHoldService(300);
+        BookingLocks bookingLocks = new BookingLocks(64);
+        AppointmentService service = new AppointmentService(appointmentRepository, new SlotIndex(doctorRepository, appointmentRepository, slotHolds, bookingLocks), bookingLocks, slotHolds,
+            mock(MonthlyPatientCounts.class), new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(EntityManager.class), mock(BookingEvents.class));
+        LocalDateTime firstSlot = LocalDate.now().plusDays(7).atTime(9, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            long patientId = i;
+            Doctor doctor = doctors.get(i % DOCTORS);
+            LocalDateTime time = firstSlot.plusHours((i / DOCTORS) % SLOTS_PER_DAY);
+            results.add(executor.submit(() -> {
+                start.await();
+                Appointment appointment = new Appointment();
+                appointment.setDoctor(doctor);
+                appointment.setAppointmentTime(time);
+                return service.bookAppointment(appointment, patientId);
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        int taken = 0;
+        for (Future<Integer> result : results) {
+            int status = result.get(30, TimeUnit.SECONDS);
+            if (status == 1) booked++;
+            if (status == -1) taken++;
+        }
+        executor.shutdown();
+        slotHolds.close();
+
+        Set<String> slots = new HashSet<>();
+        for (Appointment appointment : table) {
+            assertThat(slots.add(appointment.getDoctor().getId() + "@" + appointment.getAppointmentTime()))
+                .as("slot booked twice: %s at %s", appointment.getDoctor().getId(), appointment.getAppointmentTime())
+                .isTrue();
+        }
+        assertThat(booked).isEqualTo(DOCTORS * SLOTS_PER_DAY);
+        assertThat(table).hasSize(booked);
+        assertThat(booked + taken).isEqualTo(BOOKINGS);
+    }
+
+    private static Doctor doctor(final long id) {
+        Doctor doctor = mock(Doctor.class);
+        List<ScheduleWindow> schedule = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            schedule.add(new ScheduleWindow(day, 9 * 60, (9 + SLOTS_PER_DAY) * 60));
+        }
+        when(doctor.getId()).thenReturn(id);
+        when(doctor.getSchedule()).thenReturn(schedule);
+        when(doctor.getSlotMinutes()).thenReturn(60);
+        return doctor;
+    }
+}
@@ -0,0 +1,115 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.security.AuthPrincipal;
+
+import jakarta.persistence.EntityManager;
+
+class AppointmentServiceTest {
+    private static final LocalDateTime TIME = LocalDate.now().plusDays(7).atTime(10, 0);
+
+    private AppointmentRepository appointmentRepository;
+    private SlotIndex slotIndex;
+    private EntityManager entityManager;
+    private AppointmentService service;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        slotIndex = mock(SlotIndex.class);
+        entityManager = mock(EntityManager.class);
+        when(slotIndex.isAvailable(anyLong(), any(), any())).thenReturn(true);
+        when(entityManager.getReference(any(), any())).thenAnswer(invocation -> patient(invocation.getArgument(1)));
+        service = new AppointmentService(appointmentRepository, slotIndex, new BookingLocks(16), new SlotHoldService(300),
+            mock(MonthlyPatientCounts.class), new TransactionTemplate(mock(PlatformTransactionManager.class)), entityManager, mock(BookingEvents.class));
+    }
+
+    @Test
+    void bookingIsMadeForTheAuthenticatedPatient() {
+        Appointment appointment = appointment(null, 3L, patient(8L));
+
+        assertThat(service.bookAppointment(appointment, 7L)).isEqualTo(1);
+
+        assertThat(appointment.getPatient().getId()).isEqualTo(7L);
+        verify(appointmentRepository).saveAndFlush(appointment);
+    }
+
+    @Test
+    void patientsCannotUpdateAnotherPatientsAppointment() {
+        when(appointmentRepository.findById(5L)).thenReturn(Optional.of(appointment(5L, 3L, patient(8L))));
+
+        ResponseEntity<?> response = service.updateAppointment(appointment(5L, 3L, patient(7L)), principal(7L));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(401);
+        verify(appointmentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void updatesKeepTheAppointmentsPatient() {
+        when(appointmentRepository.findById(5L)).thenReturn(Optional.of(appointment(5L, 3L, patient(7L))));
+        Appointment update = appointment(5L, 3L, patient(8L));
+
+        ResponseEntity<?> response = service.updateAppointment(update, principal(7L));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(update.getPatient().getId()).isEqualTo(7L);
+        verify(appointmentRepository).saveAndFlush(update);
+    }
+
+    @Test
+    void dayViewIsReadForTheDoctorInTheTokenWithTheNameFilterInTheQuery() {
+        LocalDateTime start = TIME.toLocalDate().atStartOfDay();
+        AuthPrincipal doctor = new AuthPrincipal("doctor", 3L, "doctor3@example.com", (Object) null);
+
+        service.getAppointment(null, TIME, doctor);
+        service.getAppointment("null", TIME, doctor);
+        service.getAppointment("  ada ", TIME, doctor);
+
+        verify(appointmentRepository, times(2)).findDayViewByDoctorId(3L, start, start.plusDays(1));
+        verify(appointmentRepository).findDayViewByDoctorIdAndPatientName(3L, "ada", start, start.plusDays(1));
+    }
+
+    private static AuthPrincipal principal(final Long patientId) {
+        return new AuthPrincipal("patient", patientId, "patient" + patientId + "@example.com", (Object) null);
+    }
+
+    private static Patient patient(final Long id) {
+        Patient patient = new Patient();
+        ReflectionTestUtils.setField(patient, "id", id);
+        return patient;
+    }
+
+    private static Appointment appointment(final Long id, final Long doctorId, final Patient patient) {
+        Doctor doctor = new Doctor();
+        ReflectionTestUtils.setField(doctor, "id", doctorId);
+        Appointment appointment = new Appointment();
+        ReflectionTestUtils.setField(appointment, "id", id);
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentTime(TIME);
+        return appointment;
+    }
+}
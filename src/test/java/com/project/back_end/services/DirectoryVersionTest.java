@@ -0,0 +1,86 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.DoctorRepository;
+
+class DirectoryVersionTest {
+    private DoctorRepository doctorRepository;
+    private DoctorDirectory directory;
+    private DirectoryVersion version;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        when(doctorRepository.findAllWithSchedule()).thenReturn(List.of(doctor(1L, "Ada"), doctor(2L, "Grace")));
+        directory = new DoctorDirectory(doctorRepository);
+        version = new DirectoryVersion(directory);
+    }
+
+    @Test
+    void hasNoETagUntilTheDirectoryIsLoaded() {
+        assertThat(version.eTag()).isNull();
+
+        directory.rebuild();
+
+        assertThat(version.eTag()).startsWith("\"").endsWith("\"").hasSizeGreaterThan(2);
+    }
+
+    @Test
+    void theETagFollowsTheContentsNotTheNumberOfWrites() {
+        directory.rebuild();
+        String loaded = version.eTag();
+
+        directory.put(DoctorSummary.of(doctor(1L, "Ada")));
+        assertThat(version.eTag()).as("same doctor saved again").isEqualTo(loaded);
+
+        directory.put(DoctorSummary.of(doctor(1L, "Ada Lovelace")));
+        String renamed = version.eTag();
+        assertThat(renamed).isNotEqualTo(loaded);
+
+        Doctor moved = doctor(2L, "Grace");
+        moved.getSchedule().get(0).setStartMinute(10 * 60);
+        directory.put(DoctorSummary.of(moved));
+        assertThat(version.eTag()).isNotEqualTo(renamed);
+
+        directory.remove(2L);
+        directory.put(DoctorSummary.of(doctor(2L, "Grace")));
+        directory.put(DoctorSummary.of(doctor(1L, "Ada")));
+        assertThat(version.eTag()).as("back to the loaded contents").isEqualTo(loaded);
+    }
+
+    @Test
+    void nodesThatLoadTheSameDoctorsIssueTheSameETag() {
+        directory.rebuild();
+        DoctorDirectory otherNode = new DoctorDirectory(doctorRepository);
+        otherNode.rebuild();
+
+        assertThat(new DirectoryVersion(otherNode).eTag()).isEqualTo(version.eTag());
+    }
+
+    private static Doctor doctor(final Long id, final String name) {
+        Doctor doctor = new Doctor();
+        ReflectionTestUtils.setField(doctor, "id", id);
+        doctor.setName(name);
+        doctor.setSpecialty("Cardiology");
+        doctor.setEmail("doctor" + id + "@clinic.com");
+        doctor.setPhone("100000000" + id);
+        List<ScheduleWindow> schedule = new ArrayList<>();
+        schedule.add(new ScheduleWindow(DayOfWeek.MONDAY, 9 * 60, 12 * 60));
+        doctor.setSchedule(schedule);
+        return doctor;
+    }
+}
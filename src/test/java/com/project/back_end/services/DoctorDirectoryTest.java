@@ -0,0 +1,92 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.DoctorRepository;
+
+@DataJpaTest(properties = "spring.jpa.properties.jakarta.persistence.validation.mode=none")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DoctorDirectoryTest {
+    private static final List<String> NAMES = List.of("alice", "Bob", "Émile", "eve", "Zoë", "o'Neil", "van Dyke", "Ada", "ada", "Zed", "Ångström", "émile");
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DoctorDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < NAMES.size(); i++) {
+            doctorRepository.save(doctor(NAMES.get(i), i));
+        }
+        directory = new DoctorDirectory(doctorRepository);
+        directory.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM doctor_schedule");
+        jdbcTemplate.update("DELETE FROM doctor");
+    }
+
+    @Test
+    void snapshotPagesByNameInTheDatabaseOrder() {
+        List<Long> database = doctorRepository.findPageOrderByName(PageRequest.ofSize(100)).stream().map(Doctor::getId).toList();
+        List<Long> snapshot = directory.current().pageByName(null, null, 100).stream().map(DoctorSummary::id).toList();
+
+        assertThat(snapshot).isEqualTo(database);
+        for (int i = 0; i < database.size() - 1; i++) {
+            DoctorSummary after = directory.current().get(database.get(i));
+            List<Long> next = doctorRepository.findPageAfterNameOrderByName(Doctor.nameKey(after.name()), after.id(), PageRequest.ofSize(3)).stream().map(Doctor::getId).toList();
+            assertThat(directory.current().pageByName(after.name(), after.id(), 3)).extracting(DoctorSummary::id).as("after %s", after.name()).isEqualTo(next);
+        }
+    }
+
+    @Test
+    void snapshotDoesNotChangeWhenASavedDoctorIsEditedLater() {
+        Doctor doctor = doctorRepository.findWithScheduleById(directory.current().all().get(0).id());
+        directory.put(DoctorSummary.of(doctor));
+        String hash = directory.current().contentHash();
+
+        doctor.getSchedule().get(0).setStartMinute(6 * 60);
+        doctor.getSchedule().add(new ScheduleWindow(DayOfWeek.SUNDAY, 8 * 60, 9 * 60));
+
+        DoctorSummary cached = directory.current().get(doctor.getId());
+        assertThat(cached.schedule()).hasSize(1);
+        assertThat(cached.schedule().get(0).getStartMinute()).isEqualTo(9 * 60);
+        assertThat(directory.current().contentHash()).isEqualTo(hash);
+    }
+
+    private static Doctor doctor(final String name, final int n) {
+        Doctor doctor = new Doctor();
+        doctor.setName(name);
+        doctor.setSpecialty("Cardiology");
+        doctor.setEmail("doctor" + n + "@clinic.com");
+        doctor.setPassword("secret");
+        doctor.setPhone(String.format("1%09d", n));
+        List<ScheduleWindow> schedule = new ArrayList<>();
+        schedule.add(new ScheduleWindow(DayOfWeek.MONDAY, 9 * 60, 12 * 60));
+        doctor.setSchedule(schedule);
+        return doctor;
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.jakarta.persistence.validation.mode=none",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class DoctorListingQueryTest {
+    private static final int DOCTORS = 25;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private DoctorSearchIndex searchIndex;
+    private DoctorDirectory directory;
+    private DoctorService service;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < DOCTORS; i++) {
+            doctorRepository.save(doctor(i));
+        }
+        entityManager.flush();
+        searchIndex = new DoctorSearchIndex(doctorRepository);
+        directory = new DoctorDirectory(doctorRepository);
+        service = new DoctorService(doctorRepository, mock(AppointmentRepository.class), mock(TokenService.class), mock(SlotIndex.class),
+            searchIndex, directory, mock(DoctorCaches.class), entityManager,
+            new ObjectMapper(), mock(MonthlyPatientCounts.class), new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void everyListingCostsAFixedNumberOfQueriesWhateverTheCachesHold() {
+        Map<String, Integer> fromDatabase = queriesPerListing();
+        searchIndex.rebuild();
+        Map<String, Integer> fromSearchIndex = queriesPerListing();
+        directory.rebuild();
+        Map<String, Integer> fromDirectory = queriesPerListing();
+
+        assertThat(fromDatabase).allSatisfy((listing, queries) -> assertThat(queries).as(listing).isBetween(1, 2));
+        assertThat(fromSearchIndex).allSatisfy((listing, queries) -> assertThat(queries).as(listing).isBetween(1, 2));
+        assertThat(fromDirectory).allSatisfy((listing, queries) -> assertThat(queries).as(listing).isZero());
+    }
+
+    /**
+     * Runs every doctor listing over all doctors and counts the statements each one prepares
+     */
+    private Map<String, Integer> queriesPerListing() {
+        Map<String, Integer> queries = new LinkedHashMap<>();
+        queries.put("all", count(() -> service.getDoctors()));
+        queries.put("page by id", count(() -> page(service.getDoctorPage("id", null, DOCTORS).getBody())));
+        queries.put("page by name", count(() -> page(service.getDoctorPage("name", null, DOCTORS).getBody())));
+        queries.put("name", count(() -> page(service.findDoctorByName("Doctor"))));
+        queries.put("specialty", count(() -> page(service.filterDoctorBySpecialty("cardiology"))));
+        queries.put("name and specialty", count(() -> page(service.filtersDoctorByNameAndSpecialty("doctor", "Cardiology"))));
+        queries.put("time", count(() -> page(service.filterDoctorsByTime("AM"))));
+        queries.put("name and time", count(() -> page(service.filterDoctorByNameAndTime("Doctor", "AM"))));
+        queries.put("name, specialty and time", count(() -> page(service.filterDoctorsByNameSpecialtyandTime("doctor", "cardiology", "AM"))));
+        return queries;
+    }
+
+    private int count(final Supplier<List<DoctorSummary>> listing) {
+        entityManager.clear();
+        statistics.clear();
+        List<DoctorSummary> doctors = listing.get();
+        int queries = (int) statistics.getPrepareStatementCount();
+
+        assertThat(doctors).hasSize(DOCTORS).allSatisfy(doctor -> assertThat(doctor.schedule()).hasSize(2));
+        return queries;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<DoctorSummary> page(final Map<String, Object> body) {
+        return (List<DoctorSummary>) body.get("doctors");
+    }
+
+    private static Doctor doctor(final int n) {
+        Doctor doctor = new Doctor();
+        doctor.setName("Doctor " + n);
+        doctor.setSpecialty("Cardiology");
+        doctor.setEmail("doctor" + n + "@clinic.com");
+        doctor.setPassword("secret");
+        doctor.setPhone(String.format("1%09d", n));
+        List<ScheduleWindow> schedule = new ArrayList<>();
+        schedule.add(new ScheduleWindow(DayOfWeek.MONDAY, 9 * 60, 12 * 60));
+        schedule.add(new ScheduleWindow(DayOfWeek.TUESDAY, 13 * 60, 17 * 60));
+        doctor.setSchedule(schedule);
+        return doctor;
+    }
+}
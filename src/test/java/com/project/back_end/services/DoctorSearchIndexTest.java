@@ -0,0 +1,135 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repositories.DoctorRepository;
+
+class DoctorSearchIndexTest {
+    private DoctorRepository doctorRepository;
+    private DoctorSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        index = new DoctorSearchIndex(doctorRepository);
+    }
+
+    @Test
+    void answersNothingUntilBuilt() {
+        assertThat(index.search("ada", null, null)).isNull();
+
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor(1L, "Ada Lovelace", "Cardiology", "09:00 - 10:00")));
+        index.rebuild();
+
+        assertThat(index.search("ada", null, null)).containsExactly(1L);
+    }
+
+    @Test
+    void combinesNameSpecialtyAndTimeOfDay() {
+        when(doctorRepository.findAll()).thenReturn(List.of(
+            doctor(1L, "Ada Lovelace", "Cardiology", "09:00 - 10:00"),
+            doctor(2L, "Grace Hopper", "cardiology", "14:00 - 15:00"),
+            doctor(3L, "Adam Smith", "Dermatology", "09:00 - 10:00", "14:00 - 15:00"),
+            doctor(4L, "Alan Turing", "Neurology")));
+        index.rebuild();
+
+        assertThat(index.search("ADA", null, null)).containsExactly(1L, 3L);
+        assertThat(index.search("a", null, null)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(index.search("ce h", null, null)).containsExactly(2L);
+        assertThat(index.search(null, "CARDIOLOGY", null)).containsExactly(1L, 2L);
+        assertThat(index.search(null, null, "am")).containsExactly(1L, 3L);
+        assertThat(index.search(null, null, "PM")).containsExactly(2L, 3L);
+        assertThat(index.search("ada", "dermatology", "pm")).containsExactly(3L);
+        assertThat(index.search("ada", "Oncology", null)).isEmpty();
+        assertThat(index.search("xyz", null, null)).isEmpty();
+    }
+
+    @Test
+    void checksCandidatesBecauseSharedTrigramsAreNotASubstring() {
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor(1L, "abcb cbc", "Cardiology"), doctor(2L, "xabcbcx", "Cardiology")));
+        index.rebuild();
+
+        assertThat(index.search("abcbc", null, null)).containsExactly(2L);
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceEveryPostingOfTheDoctor() {
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor(1L, "Ada Lovelace", "Cardiology", "09:00 - 10:00"), doctor(2L, "Aaaa", "Cardiology")));
+        index.rebuild();
+
+        index.index(doctor(1L, "Grace Hopper", "Neurology", "14:00 - 15:00"));
+        index.index(doctor(5L, "Ada Byron", "Cardiology"));
+        index.remove(2L);
+
+        assertThat(index.search("love", null, null)).isEmpty();
+        assertThat(index.search("hopper", "neurology", "pm")).containsExactly(1L);
+        assertThat(index.search(null, "cardiology", null)).containsExactly(5L);
+        assertThat(index.search(null, null, "am")).isEmpty();
+        assertThat(index.search("aaa", null, null)).isEmpty();
+        assertThat(index.search("ada", null, null)).containsExactly(5L);
+    }
+
+    @Test
+    void matchesTheSameDoctorsAsASubstringScan() {
+        Random random = new Random(42);
+        Map<Long, Doctor> doctors = new HashMap<>();
+        List<Doctor> initial = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            Doctor doctor = doctor(id, randomName(random), "Cardiology");
+            doctors.put(id, doctor);
+            initial.add(doctor);
+        }
+        when(doctorRepository.findAll()).thenReturn(initial);
+        index.rebuild();
+        for (int i = 0; i < 200; i++) {
+            long id = 1 + random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                doctors.remove(id);
+                index.remove(id);
+            } else {
+                Doctor doctor = doctor(id, randomName(random), "Cardiology");
+                doctors.put(id, doctor);
+                index.index(doctor);
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            String query = randomName(random).substring(0, 1 + random.nextInt(4));
+            List<Long> expected = doctors.values().stream()
+                .filter(doctor -> doctor.getName().toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT)))
+                .map(Doctor::getId).sorted().toList();
+            assertThat(index.search(query, null, null)).as("query %s", query).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static String randomName(final Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0, length = 4 + random.nextInt(6); i < length; i++) {
+            name.append("abcAB ".charAt(random.nextInt(6)));
+        }
+        return name.toString();
+    }
+
+    private static Doctor doctor(final Long id, final String name, final String specialty, final String... slots) {
+        Doctor doctor = new Doctor();
+        ReflectionTestUtils.setField(doctor, "id", id);
+        doctor.setName(name);
+        doctor.setSpecialty(specialty);
+        doctor.setAvailableTimes(List.of(slots));
+        return doctor;
+    }
+}
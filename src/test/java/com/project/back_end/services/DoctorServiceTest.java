@@ -0,0 +1,207 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.DTO.Login;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+import jakarta.persistence.EntityManager;
+
+class DoctorServiceTest {
+    private DoctorRepository doctorRepository;
+    private TokenService tokenService;
+    private DoctorSearchIndex searchIndex;
+    private DoctorDirectory directory;
+    private EntityManager entityManager;
+    private DoctorService service;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        tokenService = mock(TokenService.class);
+        service = new DoctorService(doctorRepository, mock(AppointmentRepository.class), tokenService, mock(SlotIndex.class),
+            searchIndex = new DoctorSearchIndex(doctorRepository), directory = new DoctorDirectory(doctorRepository), mock(DoctorCaches.class), entityManager = mock(EntityManager.class),
+            new ObjectMapper(), mock(MonthlyPatientCounts.class), new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void loginChecksTheStoredPasswordAndIssuesASignedToken() {
+        Doctor doctor = doctor(3L, "Doctor 3");
+        doctor.setPassword("secret");
+        when(doctorRepository.findByEmail(doctor.getEmail())).thenReturn(doctor);
+        when(tokenService.generateToken(doctor.getEmail(), "doctor", 3L)).thenReturn("signed");
+
+        ResponseEntity<Map<String, String>> wrong = service.validateDoctor(login(doctor.getEmail(), "guess"));
+        ResponseEntity<Map<String, String>> right = service.validateDoctor(login(doctor.getEmail(), "secret"));
+        ResponseEntity<Map<String, String>> unknown = service.validateDoctor(login("nobody@clinic.com", "secret"));
+
+        assertThat(wrong.getStatusCode().value()).isEqualTo(400);
+        assertThat(right.getBody()).containsEntry("token", "signed");
+        assertThat(unknown.getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    void timeFiltersGiveTheSameDoctorsBeforeAndAfterTheSearchIndexIsBuilt() {
+        Doctor morning = withHours(doctor(1L, "Ada Morning"), 9, 12);
+        Doctor afternoon = withHours(doctor(2L, "Ada Afternoon"), 13, 17);
+        Doctor allDay = withHours(doctor(3L, "Grace All Day"), 8, 18);
+        List<Doctor> all = List.of(morning, afternoon, allDay);
+        when(doctorRepository.findAll()).thenReturn(all);
+        when(doctorRepository.findAllWithSchedule()).thenReturn(all);
+        when(doctorRepository.findByNameLike("Ada")).thenReturn(List.of(morning, afternoon));
+        when(doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase("a", "cardiology")).thenReturn(all);
+        when(doctorRepository.findAllWithScheduleByIdIn(anyCollection())).thenReturn(all);
+
+        for (boolean indexed : List.of(false, true)) {
+            if (indexed) searchIndex.rebuild();
+            assertThat(names(service.filterDoctorsByTime("AM"))).as("indexed: %s", indexed).containsExactlyInAnyOrder("Ada Morning", "Grace All Day");
+            assertThat(names(service.filterDoctorsByTime("pm"))).as("indexed: %s", indexed).containsExactlyInAnyOrder("Ada Afternoon", "Grace All Day");
+            assertThat(names(service.filterDoctorByNameAndTime("Ada", "PM"))).as("indexed: %s", indexed).containsExactly("Ada Afternoon");
+            assertThat(names(service.filterDoctorsByNameSpecialtyandTime("a", "cardiology", "AM"))).as("indexed: %s", indexed).containsExactlyInAnyOrder("Ada Morning", "Grace All Day");
+        }
+    }
+
+    @Test
+    void keysetPagesWalkEveryDoctorOnceFromTheDatabaseAndFromTheDirectory() {
+        List<Doctor> all = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            all.add(doctor(id, id % 3 == 0 ? "Same Name" : "Doctor " + (char) ('a' + (13 - id))));
+        }
+        Comparator<Doctor> byName = Comparator.comparing((Doctor doctor) -> Doctor.nameKey(doctor.getName())).thenComparing(Doctor::getId);
+        when(doctorRepository.findAllWithSchedule()).thenReturn(all);
+        when(doctorRepository.findPageOrderById(any())).thenAnswer(invocation -> page(all.stream(), invocation.getArgument(0)));
+        when(doctorRepository.findPageAfterIdOrderById(anyLong(), any())).thenAnswer(invocation -> {
+            Long afterId = invocation.getArgument(0);
+            return page(all.stream().filter(doctor -> doctor.getId() > afterId), invocation.getArgument(1));
+        });
+        when(doctorRepository.findPageOrderByName(any())).thenAnswer(invocation -> page(all.stream().sorted(byName), invocation.getArgument(0)));
+        when(doctorRepository.findPageAfterNameOrderByName(anyString(), anyLong(), any())).thenAnswer(invocation -> {
+            Doctor after = doctor(invocation.getArgument(1), invocation.getArgument(0));
+            return page(all.stream().sorted(byName).filter(doctor -> byName.compare(doctor, after) > 0), invocation.getArgument(2));
+        });
+        List<Long> idOrder = all.stream().map(Doctor::getId).toList();
+        List<Long> nameOrder = all.stream().sorted(byName).map(Doctor::getId).toList();
+
+        for (boolean loaded : List.of(false, true)) {
+            if (loaded) directory.rebuild();
+            assertThat(walk("id", 5)).as("directory loaded: %s", loaded).isEqualTo(idOrder);
+            assertThat(walk("name", 5)).as("directory loaded: %s", loaded).isEqualTo(nameOrder);
+            assertThat(walk("name", 12)).as("directory loaded: %s", loaded).isEqualTo(nameOrder);
+        }
+        assertThat(service.getDoctorPage("id", "not a cursor", 5).getStatusCode().value()).isEqualTo(400);
+        assertThat(service.getDoctorPage("rating", null, 5).getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    void streamingWritesEachDoctorOnceWithItsSchedule() throws Exception {
+        List<Doctor> all = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            all.add(doctor(id, "Doctor " + id));
+        }
+        when(doctorRepository.streamAllOrderById()).thenReturn(all.stream());
+        when(doctorRepository.findSchedulesByDoctorIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new Object[] {id, new ScheduleWindow(DayOfWeek.MONDAY, 9 * 60, 10 * 60)}).toList();
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.streamDoctors(out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) lines.add(new ObjectMapper().readTree(line));
+        }
+        assertThat(lines).hasSize(1200);
+        assertThat(lines).extracting(line -> line.get("id").asLong()).doesNotHaveDuplicates();
+        assertThat(lines).allSatisfy(line -> assertThat(line.get("schedule")).hasSize(1));
+        verify(doctorRepository, times(3)).findSchedulesByDoctorIdIn(anyCollection());
+        verify(entityManager, times(1200)).detach(any(Doctor.class));
+    }
+
+    static Doctor doctor(final long id, final String name) {
+        Doctor doctor = new Doctor();
+        ReflectionTestUtils.setField(doctor, "id", id);
+        doctor.setName(name);
+        doctor.setSpecialty("Cardiology");
+        doctor.setEmail("doctor" + id + "@clinic.com");
+        doctor.setPhone(String.format("1%09d", id));
+        return doctor;
+    }
+
+    /**
+     * Gives a doctor hourly slots between two hours on every weekday
+     */
+    static Doctor withHours(final Doctor doctor, final int fromHour, final int toHour) {
+        List<ScheduleWindow> schedule = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            schedule.add(new ScheduleWindow(day, fromHour * 60, toHour * 60));
+        }
+        doctor.setSlotMinutes(60);
+        doctor.setSchedule(schedule);
+        return doctor;
+    }
+
+    /**
+     * Follows the next cursors from the first page to the last
+     * @return IDs of the doctors in the order the pages returned them
+     */
+    @SuppressWarnings("unchecked")
+    private List<Long> walk(final String sort, final int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, Object> page = service.getDoctorPage(sort, cursor, limit).getBody();
+            ((List<DoctorSummary>) page.get("doctors")).forEach(doctor -> ids.add(doctor.id()));
+            cursor = (String) page.get("nextCursor");
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static List<Doctor> page(final Stream<Doctor> doctors, final Pageable page) {
+        return doctors.limit(page.getPageSize()).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(final Map<String, Object> result) {
+        return ((List<DoctorSummary>) result.get("doctors")).stream().map(DoctorSummary::name).toList();
+    }
+
+    private static Login login(final String identifier, final String password) {
+        Login login = new Login();
+        login.setIdentifier(identifier);
+        login.setPassword(password);
+        return login;
+    }
+}
@@ -0,0 +1,115 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorMonthlyCountRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+/**
+ * Keeps the monthly rollup on the default H2 database, without a MySQL compatibility mode, and with no directory snapshot loaded.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.jakarta.persistence.validation.mode=none")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MonthlyPatientCountsTest {
+    private static final long DOCTOR_ID = 1L;
+    private static final YearMonth MONTH = YearMonth.of(2025, 3);
+    private static final LocalDateTime TIME = MONTH.atDay(10).atTime(9, 0);
+
+    @Autowired
+    private DoctorMonthlyCountRepository countRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transaction;
+    private MonthlyPatientCounts counts;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO doctor (id, name, specialty, email, password, phone, slot_minutes, slot_periods, years_of_experience, clinic_address, rating) "
+            + "VALUES (?, 'Doctor 1', 'cardiology', 'doctor1@clinic.com', 'secret', '1000000001', 60, 1, 5, 'Main street', 3)", DOCTOR_ID);
+        transaction = new TransactionTemplate(transactionManager);
+        counts = new MonthlyPatientCounts(countRepository, appointmentRepository, doctorRepository, mock(DoctorDirectory.class), transaction);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM appointment");
+        jdbcTemplate.update("DELETE FROM patient");
+        jdbcTemplate.update("DELETE FROM doctor_monthly_count");
+        jdbcTemplate.update("DELETE FROM doctor");
+    }
+
+    @Test
+    void firstBookingOfAMonthCreatesItsRow() {
+        transaction.executeWithoutResult(status -> counts.recordBooked(DOCTOR_ID, TIME));
+        transaction.executeWithoutResult(status -> counts.recordBooked(DOCTOR_ID, List.of(TIME, TIME.plusDays(1))));
+        transaction.executeWithoutResult(status -> counts.recordCancelled(DOCTOR_ID, TIME));
+
+        assertThat(patientsSeen()).isEqualTo(2L);
+    }
+
+    @Test
+    void cancellingNeverTakesACountBelowZero() {
+        transaction.executeWithoutResult(status -> counts.recordCancelled(DOCTOR_ID, TIME));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor_monthly_count", Long.class)).isZero();
+
+        transaction.executeWithoutResult(status -> counts.recordBooked(DOCTOR_ID, TIME));
+        transaction.executeWithoutResult(status -> counts.recordCancelled(DOCTOR_ID, TIME));
+        transaction.executeWithoutResult(status -> counts.recordCancelled(DOCTOR_ID, TIME));
+
+        assertThat(patientsSeen()).isZero();
+    }
+
+    @Test
+    void reconcileCreatesAndOverwritesDriftedRows() {
+        jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address, date_of_birth, emergency_contact, insurance_provider) "
+            + "VALUES (1, 'Patient 1', 'patient1@mail.com', 'secret', '2000000001', 'Side street', DATE '1990-01-01', 'Someone', 'Insurer')");
+        jdbcTemplate.update("INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status) VALUES (1, ?, 1, ?, 0)", DOCTOR_ID, TIME);
+
+        assertThat(counts.reconcile(MONTH)).containsExactly(Map.of("doctorId", DOCTOR_ID, "stored", 0L, "actual", 1L));
+        assertThat(patientsSeen()).isEqualTo(1L);
+
+        jdbcTemplate.update("UPDATE doctor_monthly_count SET patients_seen = 4");
+        counts.reconcile(MONTH);
+        assertThat(patientsSeen()).isEqualTo(1L);
+    }
+
+    @Test
+    void topDoctorsLooksUpNamesMissingFromTheDirectory() {
+        transaction.executeWithoutResult(status -> counts.recordBooked(DOCTOR_ID, TIME));
+
+        assertThat(counts.topDoctors(MONTH, 10)).containsExactly(Map.of("doctorId", DOCTOR_ID, "doctorName", "Doctor 1", "patientsSeen", 1L));
+    }
+
+    private Long patientsSeen() {
+        return jdbcTemplate.queryForObject("SELECT patients_seen FROM doctor_monthly_count WHERE doctor_id = ? AND month_key = 202503", Long.class, DOCTOR_ID);
+    }
+}
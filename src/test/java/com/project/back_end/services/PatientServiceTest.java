@@ -0,0 +1,135 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.project.back_end.DTO.PatientAppointment;
+import com.project.back_end.invalidation.InvalidationBus;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.PatientRepository;
+
+class PatientServiceTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(); // As Spring Boot configures it
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private AppointmentRepository appointmentRepository;
+    private PatientService service;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        service = new PatientService(mock(PatientRepository.class), appointmentRepository, mock(InvalidationBus.class), objectMapper);
+    }
+
+    @Test
+    void exportWritesOneJsonLinePerAppointmentInOrder() throws Exception {
+        history(Stream.of(appointment(1, "Ada, \"The Countess\""), appointment(2, "Grace"), appointment(3, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportAppointments(7L, out);
+
+        String export = out.toString(StandardCharsets.UTF_8);
+        assertThat(export).endsWith("\n");
+        List<JsonNode> lines = Stream.of(export.split("\n")).map(this::parse).toList();
+        assertThat(lines).extracting(line -> line.get("id").asLong()).containsExactly(1L, 2L, 3L);
+        assertThat(lines.get(0).get("doctorName").asText()).isEqualTo("Ada, \"The Countess\"");
+        assertThat(lines.get(0).get("appointmentTime").asText()).isEqualTo("2030-03-04T09:00:00");
+        assertThat(lines.get(2).get("pharmacyName").isNull()).isTrue();
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportFlushesTheFirstAppointmentBeforeReadingTheRest() throws Exception {
+        FlushRecordingStream out = new FlushRecordingStream();
+        List<String> writtenWhenSecondRowRead = new ArrayList<>();
+        history(IntStream.rangeClosed(1, 450)
+            .peek(i -> {
+                if (i == 2) {
+                    writtenWhenSecondRowRead.add(out.toString(StandardCharsets.UTF_8));
+                }
+            })
+            .mapToObj(i -> appointment(i, "Ada")));
+
+        service.exportAppointments(7L, out);
+
+        assertThat(writtenWhenSecondRowRead).singleElement().satisfies(written -> assertThat(parse(written).get("id").asLong()).isEqualTo(1L));
+        assertThat(out.flushedAt).containsExactly(1, 201, 401, 450, 451); // Every 200 rows, then the tail and the closing newline, not once per row
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).hasSize(450);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportOfAnEmptyHistoryIsABlankLine() throws Exception {
+        history(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportAppointments(7L, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("\n");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportClosesTheCursorWhenWritingFails() {
+        history(Stream.of(appointment(1, "Ada")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                throw new IllegalStateException("client went away");
+            }
+        };
+
+        assertThatThrownBy(() -> service.exportAppointments(7L, out)).isInstanceOf(IllegalStateException.class);
+        assertThat(closed).isTrue();
+    }
+
+    private void history(final Stream<PatientAppointment> appointments) {
+        when(appointmentRepository.streamByPatientId(7L)).thenReturn(appointments.onClose(() -> closed.set(true)));
+    }
+
+    private static PatientAppointment appointment(final int id, final String doctorName) {
+        return new PatientAppointment((long) id, 3L, doctorName, "Cardiology", 7L, START.plusHours(id - 1), 0, "Checkup", id == 3 ? null : "Main St");
+    }
+
+    private JsonNode parse(final String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Records how many lines had been started at each flush that had something new to send
+     */
+    private static final class FlushRecordingStream extends ByteArrayOutputStream {
+        private final List<Integer> flushedAt = new ArrayList<>();
+
+        @Override
+        public void flush() {
+            final int lines = (int) toString(StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count() + 1;
+            if (flushedAt.isEmpty() || flushedAt.get(flushedAt.size() - 1) != lines) {
+                flushedAt.add(lines);
+            }
+        }
+    }
+}
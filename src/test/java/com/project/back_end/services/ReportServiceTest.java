@@ -0,0 +1,111 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.project.back_end.DTO.DailyReportRow;
+import com.project.back_end.repositories.AppointmentRepository;
+
+class ReportServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(); // As Spring Boot configures it
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private AppointmentRepository appointmentRepository;
+    private ReportService service;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        service = new ReportService(appointmentRepository, objectMapper);
+    }
+
+    @Test
+    void csvHasOneRowPerAppointmentWithFieldsQuotedWhereNeeded() throws Exception {
+        report(
+            new DailyReportRow(1L, "Ada", DAY.atTime(9, 0), 0, "Grace \"Amazing\" Hopper", "200"),
+            new DailyReportRow(1L, "Ada", DAY.atTime(10, 0), 1, "Smith, Adam", null),
+            new DailyReportRow(2L, "Zed", DAY.atTime(9, 30), 0, "Line\nBreak", "201"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeDailyReportCsv(DAY, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "doctor_id,doctor_name,appointment_time,status,patient_name,patient_phone\n"
+            + "1,Ada,2030-03-04T09:00,0,\"Grace \"\"Amazing\"\" Hopper\",200\n"
+            + "1,Ada,2030-03-04T10:00,1,\"Smith, Adam\",\n"
+            + "2,Zed,2030-03-04T09:30,0,\"Line\nBreak\",201\n");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void ndjsonHasOneLinePerDoctorWithItsAppointmentsInOrder() throws Exception {
+        report(
+            new DailyReportRow(1L, "Ada", DAY.atTime(9, 0), 0, "Grace", "200"),
+            new DailyReportRow(1L, "Ada", DAY.atTime(10, 0), 1, "Adam", "201"),
+            new DailyReportRow(3L, "Bea", DAY.atTime(8, 0), 0, "Eve", "202"),
+            new DailyReportRow(2L, "Zed", DAY.atTime(11, 0), 0, "Ada", "203"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeDailyReportNdjson(DAY, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        List<JsonNode> doctors = Stream.of(lines).map(this::parse).toList();
+        assertThat(doctors).extracting(doctor -> doctor.get("doctorId").asLong()).containsExactly(1L, 3L, 2L);
+        assertThat(doctors.get(0).get("doctorName").asText()).isEqualTo("Ada");
+        assertThat(doctors.get(0).get("appointments")).hasSize(2);
+        assertThat(doctors.get(0).get("appointments").get(1).get("appointmentTime").asText()).isEqualTo("2030-03-04T10:00:00");
+        assertThat(doctors.get(0).get("appointments").get(1).get("patientName").asText()).isEqualTo("Adam");
+        assertThat(doctors.get(2).get("appointments").get(0).get("patientPhone").asText()).isEqualTo("203");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void anEmptyDayHasOnlyTheCsvHeaderOrNoNdjsonLines() throws Exception {
+        report();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        service.writeDailyReportCsv(DAY, csv);
+        service.writeDailyReportNdjson(DAY, ndjson);
+
+        assertThat(csv.toString(StandardCharsets.UTF_8)).isEqualTo("doctor_id,doctor_name,appointment_time,status,patient_name,patient_phone\n");
+        assertThat(ndjson.toString(StandardCharsets.UTF_8)).isBlank();
+    }
+
+    /**
+     * Serves the rows for the report day as a half-open range, and records when the stream is closed
+     */
+    private void report(final DailyReportRow... rows) {
+        when(appointmentRepository.streamDailyReport(any(), any())).thenAnswer(invocation -> {
+            assertThat((Object) invocation.getArgument(0)).isEqualTo(DAY.atStartOfDay());
+            assertThat((Object) invocation.getArgument(1)).isEqualTo(DAY.plusDays(1).atStartOfDay());
+            return Stream.of(rows).onClose(() -> closed.set(true));
+        });
+    }
+
+    private JsonNode parse(final String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new AssertionError("Not a JSON line: " + line, e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.DoctorRepository;
+
+@DataJpaTest(properties = "spring.jpa.properties.jakarta.persistence.validation.mode=none")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScheduleMigrationTest {
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ScheduleMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE doctor_available_times (doctor_id BIGINT NOT NULL, available_times VARCHAR(255))");
+        migration = new ScheduleMigration(jdbcTemplate, doctorRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE doctor_available_times");
+        jdbcTemplate.update("DELETE FROM doctor_schedule");
+        jdbcTemplate.update("DELETE FROM doctor");
+    }
+
+    @Test
+    void convertsLegacyTimesOnceAndKeepsExistingSchedules() {
+        Doctor legacy = doctorRepository.save(doctor(1));
+        Doctor scheduled = doctor(2);
+        scheduled.getSchedule().add(new ScheduleWindow(DayOfWeek.MONDAY, 8 * 60, 9 * 60));
+        scheduled = doctorRepository.save(scheduled);
+        Doctor unreadable = doctorRepository.save(doctor(3));
+        insertLegacy(legacy.getId(), "09:00 - 10:00", "10:00 - 11:00");
+        insertLegacy(scheduled.getId(), "15:00 - 16:00");
+        insertLegacy(unreadable.getId(), "whenever");
+
+        run();
+        run();
+
+        Doctor migrated = doctorRepository.findWithScheduleById(legacy.getId());
+        assertThat(migrated.getSchedule()).hasSize(7).allSatisfy(window -> {
+            assertThat(window.getStartMinute()).isEqualTo(9 * 60);
+            assertThat(window.getEndMinute()).isEqualTo(11 * 60);
+        });
+        assertThat(migrated.getSlotMinutes()).isEqualTo(60);
+        assertThat(migrated.getSlotPeriods()).isEqualTo(Doctor.MORNING);
+        assertThat(doctorRepository.findWithScheduleById(scheduled.getId()).getSchedule())
+            .extracting(ScheduleWindow::getStartMinute).containsExactly(8 * 60);
+        assertThat(doctorRepository.findWithScheduleById(unreadable.getId()).getSchedule()).isEmpty();
+    }
+
+    private void run() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> migration.run(null));
+    }
+
+    private void insertLegacy(final Long doctorId, final String... slots) {
+        for (String slot : slots) {
+            jdbcTemplate.update("INSERT INTO doctor_available_times (doctor_id, available_times) VALUES (?, ?)", doctorId, slot);
+        }
+    }
+
+    private static Doctor doctor(final int n) {
+        Doctor doctor = new Doctor();
+        doctor.setName("Doctor " + n);
+        doctor.setSpecialty("Cardiology");
+        doctor.setEmail("doctor" + n + "@clinic.com");
+        doctor.setPassword("secret");
+        doctor.setPhone(String.format("1%09d", n));
+        doctor.setSchedule(new ArrayList<>());
+        return doctor;
+    }
+}
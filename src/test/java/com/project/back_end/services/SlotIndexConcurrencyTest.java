@@ -0,0 +1,182 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+class SlotIndexConcurrencyTest {
+    private static final long DOCTOR_ID = 1L;
+    private static final int SLOTS_PER_DAY = 8;
+    private static final int DAYS = 5;
+    private static final LocalDate FIRST_DAY = LocalDate.now().plusDays(7);
+
+    // The database: booked times of the doctor, changed only under the doctor's booking lock like AppointmentService does
+    private final Set<LocalDateTime> table = new HashSet<>();
+
+    private BookingLocks bookingLocks;
+    private SlotHoldService slotHolds;
+    private SlotIndex slotIndex;
+
+    @BeforeEach
+    void setUp() {
+        DoctorRepository doctorRepository = mock(DoctorRepository.class);
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        Doctor doctor = doctor();
+        when(doctorRepository.findWithScheduleById(DOCTOR_ID)).thenReturn(doctor);
+        when(appointmentRepository.findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime start = invocation.getArgument(1);
+            LocalDateTime end = invocation.getArgument(2);
+            List<LocalDateTime> times = new ArrayList<>();
+            synchronized (table) {
+                for (LocalDateTime time : table) {
+                    if (!time.isBefore(start) && time.isBefore(end)) times.add(time);
+                }
+            }
+            Thread.yield(); // widen the window between reading the database and caching the result
+            return times;
+        });
+
+        bookingLocks = new BookingLocks(16);
+        slotHolds = new SlotHoldService(300);
+        slotIndex = new SlotIndex(doctorRepository, appointmentRepository, slotHolds, bookingLocks);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slotHolds.close();
+    }
+
+    @Test
+    void firstLookupsFromManyThreadsSeeTheWholeSchedule() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                LocalDate date = FIRST_DAY.plusDays(i % DAYS);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return slotIndex.getAvailability(DOCTOR_ID, date, null);
+                }));
+            }
+            start.countDown();
+            for (Future<List<String>> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).hasSize(SLOTS_PER_DAY);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readsRacingBookingsAndInvalidationsNeverCacheStaleDays() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean invalidating = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        if (i == 1000) invalidating.set(false); // a stale day cached by the last invalidations would stay wrong
+                        toggle(randomSlot());
+                    }
+                }));
+            }
+            List<Future<?>> others = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                others.add(executor.submit(() -> {
+                    while (running.get()) slotIndex.isAvailable(DOCTOR_ID, randomSlot(), null);
+                }));
+            }
+            others.add(executor.submit(() -> {
+                while (invalidating.get()) {
+                    Lock lock = bookingLocks.forDoctor(DOCTOR_ID);
+                    lock.lock();
+                    try {
+                        slotIndex.invalidateBookings(DOCTOR_ID); // as on a change from another node
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }));
+            for (Future<?> writer : writers) writer.get(60, TimeUnit.SECONDS);
+            running.set(false);
+            for (Future<?> other : others) other.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int day = 0; day < DAYS; day++) {
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                LocalDateTime time = FIRST_DAY.plusDays(day).atTime(9 + slot, 0);
+                assertThat(slotIndex.isAvailable(DOCTOR_ID, time, null)).as("slot %s", time).isEqualTo(!table.contains(time));
+            }
+        }
+    }
+
+    /**
+     * Books a free slot or cancels a booked one, updating the database and then the index under the booking lock
+     */
+    private void toggle(final LocalDateTime time) {
+        Lock lock = bookingLocks.forDoctor(DOCTOR_ID);
+        lock.lock();
+        try {
+            boolean booked;
+            synchronized (table) {
+                booked = table.add(time) || !table.remove(time);
+            }
+            if (booked) {
+                slotIndex.book(DOCTOR_ID, time);
+            } else {
+                slotIndex.cancel(DOCTOR_ID, time);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static LocalDateTime randomSlot() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return FIRST_DAY.plusDays(random.nextInt(DAYS)).atTime(9 + random.nextInt(SLOTS_PER_DAY), 0);
+    }
+
+    private static Doctor doctor() {
+        Doctor doctor = mock(Doctor.class);
+        List<ScheduleWindow> schedule = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            schedule.add(new ScheduleWindow(day, 9 * 60, (9 + SLOTS_PER_DAY) * 60));
+        }
+        when(doctor.getId()).thenReturn(DOCTOR_ID);
+        when(doctor.getSchedule()).thenReturn(schedule);
+        when(doctor.getSlotMinutes()).thenReturn(60);
+        return doctor;
+    }
+}
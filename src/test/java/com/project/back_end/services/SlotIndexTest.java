@@ -0,0 +1,152 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleWindow;
+import com.project.back_end.repositories.AppointmentRepository;
+import com.project.back_end.repositories.DoctorRepository;
+
+class SlotIndexTest {
+    private static final LocalDate MONDAY = LocalDate.now().plusDays(7).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    private static final List<String> WEEKDAY = List.of("09:00 - 10:00", "10:00 - 11:00", "11:00 - 12:00");
+
+    private DoctorRepository doctorRepository;
+    private AppointmentRepository appointmentRepository;
+    private SlotHoldService slotHolds;
+    private SlotIndex slotIndex;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        appointmentRepository = mock(AppointmentRepository.class);
+        slotHolds = new SlotHoldService(300);
+        slotIndex = new SlotIndex(doctorRepository, appointmentRepository, slotHolds, new BookingLocks(16));
+        when(doctorRepository.findWithScheduleById(1L)).thenReturn(doctor(1L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        slotHolds.close();
+    }
+
+    @Test
+    void aDateRangeIsLoadedWithOneQueryAndGroupedByDate() {
+        LocalDate last = MONDAY.plusDays(13);
+        when(appointmentRepository.findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any()))
+            .thenReturn(List.of(MONDAY.plusDays(2).atTime(10, 0), MONDAY.plusDays(9).atTime(9, 0)));
+
+        Map<LocalDate, List<String>> availability = slotIndex.getAvailability(1L, MONDAY, last, null);
+
+        assertThat(availability.keySet()).containsExactlyElementsOf(MONDAY.datesUntil(last.plusDays(1)).toList());
+        assertThat(availability.get(MONDAY)).isEqualTo(WEEKDAY);
+        assertThat(availability.get(MONDAY.plusDays(2))).containsExactly("09:00 - 10:00", "11:00 - 12:00");
+        assertThat(availability.get(MONDAY.plusDays(5))).as("Saturday").isEmpty();
+        assertThat(availability.get(last)).as("Sunday").isEmpty();
+        assertThat(availability.get(MONDAY.plusDays(9))).containsExactly("10:00 - 11:00", "11:00 - 12:00");
+        verify(appointmentRepository).findAppointmentTimesByDoctorIdBetween(1L, MONDAY.atStartOfDay(), last.plusDays(1).atStartOfDay());
+
+        assertThat(slotIndex.getAvailability(1L, MONDAY, last, null)).isEqualTo(availability);
+        verify(appointmentRepository, times(1)).findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any());
+    }
+
+    @Test
+    void loadedDaysFollowBookingsAndCancellationsWithoutQueryingAgain() {
+        slotIndex.getAvailability(1L, MONDAY, MONDAY.plusDays(1), null);
+
+        slotIndex.book(1L, MONDAY.atTime(9, 0));
+        slotIndex.book(1L, MONDAY.plusDays(1).atTime(11, 0));
+        slotIndex.cancel(1L, MONDAY.atTime(9, 0));
+
+        Map<LocalDate, List<String>> availability = slotIndex.getAvailability(1L, MONDAY, MONDAY.plusDays(1), null);
+        assertThat(availability.get(MONDAY)).isEqualTo(WEEKDAY);
+        assertThat(availability.get(MONDAY.plusDays(1))).containsExactly("09:00 - 10:00", "10:00 - 11:00");
+        verify(appointmentRepository, times(1)).findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any());
+    }
+
+    @Test
+    void onlyTheSpanOfMissingDaysIsQueried() {
+        slotIndex.getAvailability(1L, MONDAY, null);
+        slotIndex.getAvailability(1L, MONDAY.plusDays(4), null);
+
+        slotIndex.getAvailability(1L, MONDAY, MONDAY.plusDays(4), null);
+
+        verify(appointmentRepository).findAppointmentTimesByDoctorIdBetween(1L, MONDAY.plusDays(1).atStartOfDay(), MONDAY.plusDays(4).atStartOfDay());
+        verify(appointmentRepository, times(3)).findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any());
+    }
+
+    @Test
+    void aBatchLoadsDoctorsAndTheirBookingsWithOneQueryEach() {
+        when(doctorRepository.findAllWithScheduleByIdIn(anyCollection())).thenReturn(List.of(doctor(1L), doctor(2L)));
+        when(appointmentRepository.findDoctorIdAndAppointmentTimeByDoctorIdInBetween(anyCollection(), any(), any()))
+            .thenReturn(List.<Object[]>of(new Object[] {1L, MONDAY.atTime(10, 0)}, new Object[] {2L, MONDAY.atTime(9, 0)}));
+
+        Map<Long, List<String>> availability = slotIndex.getAvailability(List.of(2L, 99L, 1L), MONDAY, null);
+
+        assertThat(availability.keySet()).containsExactly(2L, 1L);
+        assertThat(availability.get(1L)).containsExactly("09:00 - 10:00", "11:00 - 12:00");
+        assertThat(availability.get(2L)).containsExactly("10:00 - 11:00", "11:00 - 12:00");
+        assertThat(slotIndex.getAvailability(List.of(1L, 2L), MONDAY, null)).isEqualTo(Map.of(1L, availability.get(1L), 2L, availability.get(2L)));
+        verify(doctorRepository).findAllWithScheduleByIdIn(List.of(2L, 99L, 1L));
+        verify(appointmentRepository).findDoctorIdAndAppointmentTimeByDoctorIdInBetween(anyCollection(), any(), any());
+        verify(doctorRepository, never()).findWithScheduleById(anyLong());
+        verify(appointmentRepository, never()).findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any());
+    }
+
+    @Test
+    void aBatchQueriesOnlyTheDoctorsWhoseDayIsNotLoaded() {
+        when(doctorRepository.findAllWithScheduleByIdIn(anyCollection())).thenReturn(List.of(doctor(2L)));
+        List<Collection<Long>> queried = new ArrayList<>();
+        when(appointmentRepository.findDoctorIdAndAppointmentTimeByDoctorIdInBetween(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            queried.add(List.copyOf(invocation.<Collection<Long>>getArgument(0)));
+            return List.of();
+        });
+        slotIndex.getAvailability(1L, MONDAY, null);
+
+        Map<Long, List<String>> availability = slotIndex.getAvailability(List.of(1L, 2L), MONDAY, null);
+
+        assertThat(availability).containsEntry(1L, WEEKDAY).containsEntry(2L, WEEKDAY);
+        assertThat(queried).containsExactly(List.of(2L));
+        verify(doctorRepository).findAllWithScheduleByIdIn(List.of(2L));
+        verify(appointmentRepository, times(1)).findAppointmentTimesByDoctorIdBetween(anyLong(), any(), any());
+    }
+
+    @Test
+    void anUnknownDoctorHasNoAvailability() {
+        assertThat(slotIndex.getAvailability(2L, MONDAY, MONDAY.plusDays(6), null)).isNull();
+        assertThat(slotIndex.isAvailable(2L, MONDAY.atTime(9, 0), null)).isNull();
+    }
+
+    private static Doctor doctor(final Long id) {
+        Doctor doctor = new Doctor();
+        ReflectionTestUtils.setField(doctor, "id", id);
+        List<ScheduleWindow> schedule = new ArrayList<>();
+        for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY)) {
+            schedule.add(new ScheduleWindow(day, 9 * 60, 12 * 60));
+        }
+        doctor.setSchedule(schedule);
+        return doctor;
+    }
+}
@@ -0,0 +1,79 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+    private TimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel("test-wheel", 5, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void runsTasksAfterTheirDelayEvenBeyondOneRound() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        long startedAt = System.nanoTime();
+        wheel.schedule(done::countDown, 10);
+        wheel.schedule(done::countDown, 120); // three rounds of the 8-bucket wheel
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(115);
+    }
+
+    @Test
+    void cancelledTasksDoNotRun() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch later = new CountDownLatch(1);
+        wheel.schedule(() -> ran.set(true), 10).cancel();
+        wheel.schedule(later::countDown, 30);
+
+        assertThat(later.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).isFalse();
+    }
+
+    @Test
+    void aThrowingTaskDoesNotStallTheWheel() throws Exception {
+        CountDownLatch sameTick = new CountDownLatch(1);
+        CountDownLatch later = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            throw new IllegalStateException("task failed");
+        }, 10);
+        wheel.schedule(sameTick::countDown, 10);
+        wheel.schedule(() -> {
+            throw new AssertionError("task failed");
+        }, 20);
+        wheel.schedule(later::countDown, 60);
+
+        assertThat(sameTick.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(later.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void theHandKeepsTimeWhileTasksThrow() throws Exception {
+        for (long delay = 5; delay <= 400; delay += 5) {
+            wheel.schedule(() -> {
+                throw new IllegalStateException("task failed");
+            }, delay);
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        long startedAt = System.nanoTime();
+        wheel.schedule(done::countDown, 400);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(650); // a tick lost per failure would take 800 ms
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenCacheTest {
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Test
+    void servesCachedTokensAndCountsHitsAndMisses() {
+        TokenCache cache = new TokenCache(100, HOUR);
+        cache.put("a", System.currentTimeMillis() + HOUR, "doctor1@clinic.com", "doctor", 1L);
+
+        assertThat(cache.get("a").getIdentifier()).isEqualTo("doctor1@clinic.com");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L).containsEntry("size", 1L);
+    }
+
+    @Test
+    void dropsEntriesWhenTheTokenOrTheMaxTtlExpires() throws InterruptedException {
+        TokenCache cache = new TokenCache(100, 20);
+        cache.put("expired", System.currentTimeMillis() - 1, "patient1@mail.com", null, null);
+        cache.put("ttl", System.currentTimeMillis() + HOUR, "patient2@mail.com", null, null);
+
+        assertThat(cache.get("expired")).isNull();
+        Thread.sleep(30);
+        assertThat(cache.get("ttl")).isNull();
+        assertThat(cache.getStats()).containsEntry("size", 0L).containsEntry("evictions", 2L);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedTokensBeyondTheMaximumSize() throws InterruptedException {
+        TokenCache cache = new TokenCache(10, HOUR);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 10; i++) {
+            cache.put("token" + i, expiresAt, "user" + i, null, null);
+        }
+        Thread.sleep(5);
+        cache.get("token0"); // Recently used, so it survives
+
+        cache.put("token10", expiresAt, "user10", null, null);
+        cache.put("token11", expiresAt, "user11", null, null);
+
+        assertThat(cache.getStats().get("size")).isEqualTo(10L);
+        assertThat(cache.get("token0")).isNotNull();
+        assertThat(cache.get("token11")).isNotNull();
+        assertThat(cache.getStats().get("evictions")).isEqualTo(2L);
+    }
+
+    @Test
+    void invalidatesSingleTokensAndTokensOfAUser() {
+        TokenCache cache = new TokenCache(100, HOUR);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        cache.put("revoked", expiresAt, "doctor1@clinic.com", "doctor", 1L);
+        cache.put("claims", expiresAt, "doctor2@clinic.com", "doctor", 2L);
+        VerifiedToken legacy = cache.put("legacy", expiresAt, "doctor2@clinic.com", null, null);
+        legacy.confirmRole("doctor", 2L);
+        cache.put("other", expiresAt, "patient2@mail.com", "patient", 2L);
+
+        cache.invalidate("revoked");
+        cache.invalidateIf(token -> token.belongsTo("doctor", 2L));
+
+        assertThat(cache.get("revoked")).isNull();
+        assertThat(cache.get("claims")).isNull();
+        assertThat(cache.get("legacy")).isNull();
+        assertThat(cache.get("other")).isNotNull();
+    }
+
+    @Test
+    void staysWithinItsBoundsUnderConcurrentUse() throws Exception {
+        TokenCache cache = new TokenCache(1000, HOUR);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < 8; worker++) {
+                final int offset = worker * 10_000;
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        cache.put("token" + (offset + i), expiresAt, "user", null, null);
+                        cache.get("token" + (offset + i / 2));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cache.getStats().get("size")).isBetween(1000L, 1100L);
+    }
+}
@@ -0,0 +1,103 @@
+package com.project.back_end.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repositories.AdminRepository;
+import com.project.back_end.repositories.DoctorRepository;
+import com.project.back_end.repositories.PatientRepository;
+import com.project.back_end.security.AuthPrincipal;
+import com.project.back_end.security.TokenRevocationStore;
+
+class TokenServiceTest {
+    private static final long DOCTOR_ID = 7L;
+    private static final String EMAIL = "doctor7@clinic.com";
+
+    private DoctorRepository doctorRepository;
+    private TokenRevocationStore revocationStore;
+    private TokenService service;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        revocationStore = mock(TokenRevocationStore.class);
+        service = new TokenService(mock(AdminRepository.class), doctorRepository, mock(PatientRepository.class), revocationStore);
+        ReflectionTestUtils.setField(service, "jwtSecret", "testSecretKey12345678901234567890123456789");
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(service, "cacheMaxTtlSeconds", 300L);
+        service.init();
+
+        Doctor doctor = mock(Doctor.class);
+        when(doctor.getId()).thenReturn(DOCTOR_ID);
+        when(doctorRepository.findByEmail(EMAIL)).thenReturn(doctor);
+    }
+
+    @Test
+    void signsRoleAndPrincipalClaims() {
+        ReflectionTestUtils.setField(service, "trustClaims", true);
+        String token = service.generateToken(EMAIL, "Doctor", DOCTOR_ID);
+
+        assertThat(service.extractIdentifier(token)).isEqualTo(EMAIL);
+        assertThat(service.extractPrincipalId(token, "doctor")).isEqualTo(DOCTOR_ID);
+        assertThat(service.extractPrincipalId(token, "patient")).isNull();
+        assertThat(service.validateToken(token, "patient")).isFalse();
+    }
+
+    @Test
+    void checksTheUserStillExistsUnlessClaimsAreTrusted() {
+        String token = service.generateToken(EMAIL, "doctor", DOCTOR_ID);
+
+        assertThat(service.extractPrincipalId(token, "doctor")).isNull();
+        AuthPrincipal principal = service.resolvePrincipal(token, "doctor");
+        assertThat(principal.getId()).isEqualTo(DOCTOR_ID);
+
+        when(doctorRepository.findByEmail(EMAIL)).thenReturn(null);
+        assertThat(service.resolvePrincipal(token, "doctor")).isNull();
+    }
+
+    @Test
+    void verifiesEachTokenOnceAndConfirmsItsRoleOnce() {
+        String token = service.generateToken(EMAIL);
+
+        assertThat(service.validateToken(token, "doctor")).isTrue();
+        assertThat(service.validateToken(token, "doctor")).isTrue();
+
+        verify(doctorRepository, times(1)).findByEmail(EMAIL);
+        assertThat(service.getCacheStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void deletedDoctorsTokensAreCheckedAgain() {
+        String token = service.generateToken(EMAIL);
+        assertThat(service.validateToken(token, "doctor")).isTrue();
+
+        when(doctorRepository.findByEmail(EMAIL)).thenReturn(null);
+        service.evictPrincipal("doctor", DOCTOR_ID);
+
+        assertThat(service.validateToken(token, "doctor")).isFalse();
+    }
+
+    @Test
+    void revokedTokensLeaveTheCacheAndAreRejected() {
+        String token = service.generateToken(EMAIL, "doctor", DOCTOR_ID);
+        assertThat(service.validateToken(token, "doctor")).isTrue();
+
+        assertThat(service.revokeToken(token)).isTrue();
+        verify(revocationStore).revoke(anyString(), anyLong());
+        assertThat(service.getCacheStats()).containsEntry("size", 0L);
+
+        when(revocationStore.isRevoked(TokenCache.digest(token))).thenReturn(true);
+        assertThat(service.validateToken(token, "doctor")).isFalse();
+        assertThat(service.revokeToken(token)).isFalse();
+    }
+}
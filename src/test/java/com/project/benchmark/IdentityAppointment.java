@@ -0,0 +1,44 @@
+package com.project.benchmark;
+
+import java.time.LocalDateTime;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Appointment columns with the former IDENTITY key, as the baseline of BulkInsertBenchmarkTest.
+ * Kept outside com.project.back_end so only the benchmark's context maps its table.
+ */
+@Entity
+@Table(name = "benchmark_identity_appointment")
+public class IdentityAppointment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    private Doctor doctor;
+
+    @ManyToOne
+    private Patient patient;
+
+    private LocalDateTime appointmentTime;
+
+    private int status;
+
+    protected IdentityAppointment() {
+    }
+
+    public IdentityAppointment(final Doctor doctor, final Patient patient, final LocalDateTime appointmentTime) {
+        this.doctor = doctor;
+        this.patient = patient;
+        this.appointmentTime = appointmentTime;
+    }
+}